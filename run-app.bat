@@ -21,7 +21,7 @@ if not exist "sqlite-jdbc.jar" (
 
 REM Compile Java files
 echo Compiling Java files...
-javac --module-path "%JAVAFX_PATH%" --add-modules javafx.controls,javafx.fxml -d out -cp "out;sqlite-jdbc.jar" src/main/java/module-info.java src/main/java/com/pos/*.java src/main/java/com/pos/controllers/*.java src/main/java/com/pos/models/*.java src/main/java/com/pos/repository/*.java src/main/java/com/pos/database/*.java src/main/java/com/pos/utils/*.java
+javac --module-path "%JAVAFX_PATH%" --add-modules javafx.controls,javafx.fxml -d out -cp "out;sqlite-jdbc.jar" src/main/java/module-info.java src/main/java/com/pos/*.java src/main/java/com/pos/controllers/*.java src/main/java/com/pos/models/*.java src/main/java/com/pos/repository/*.java src/main/java/com/pos/database/*.java src/main/java/com/pos/services/*.java src/main/java/com/pos/utils/*.java src/main/java/com/pos/events/*.java
 
 if %errorlevel% neq 0 (
     echo Compilation failed!
@@ -1,12 +1,17 @@
 package com.pos;
 
 import com.pos.database.DatabaseManager;
+import com.pos.utils.ViewRegistry;
+import com.pos.utils.ViewRegistry.Refreshable;
+import com.pos.utils.ViewRegistry.View;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.layout.StackPane;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 public class App {
     @FXML
@@ -24,18 +29,32 @@ public class App {
     @FXML
     private Button salesBtn;
     
+    private ViewRegistry views;
+    
     @FXML
     private void initialize() {
         try {
             // Initialize database
             DatabaseManager.initialize();
             
+            // Each screen is parsed once and kept; showing it again refreshes its data
+            views = new ViewRegistry(contentArea);
+            views.register("dashboard", () -> loadView("/fxml/Dashboard.fxml"));
+            views.register("products", () -> loadView("/fxml/Products.fxml"));
+            views.register("categories", () -> loadView("/fxml/Categories.fxml"));
+            views.register("sales", () -> loadView("/fxml/Sales.fxml"));
+            
             // Load dashboard by default
-            loadDashboard();
+            views.show("dashboard");
             
             // Set up navigation buttons
             setupNavigation();
             
+            // Parse the other screens while the dashboard is idle, so the first visit is instant
+            if (Boolean.parseBoolean(System.getProperty("pos.views.preload", "true"))) {
+                views.preload();
+            }
+            
         } catch (Exception e) {
             System.err.println("Error initializing application: " + e.getMessage());
             e.printStackTrace();
@@ -43,53 +62,21 @@ public class App {
     }
     
     private void setupNavigation() {
-        dashboardBtn.setOnAction(e -> loadDashboard());
-        productsBtn.setOnAction(e -> loadProducts());
-        categoriesBtn.setOnAction(e -> loadCategories());
-        salesBtn.setOnAction(e -> loadSales());
-    }
-    
-    private void loadDashboard() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Dashboard.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-        } catch (IOException e) {
-            System.err.println("Error loading dashboard: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    private void loadProducts() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Products.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-        } catch (IOException e) {
-            System.err.println("Error loading products: " + e.getMessage());
-            e.printStackTrace();
-        }
+        dashboardBtn.setOnAction(e -> views.show("dashboard"));
+        productsBtn.setOnAction(e -> views.show("products"));
+        categoriesBtn.setOnAction(e -> views.show("categories"));
+        salesBtn.setOnAction(e -> views.show("sales"));
     }
     
-    private void loadCategories() {
+    private View loadView(String resource) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Categories.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(resource));
+            Node root = loader.load();
+            Object controller = loader.getController();
+            Runnable refresh = controller instanceof Refreshable refreshable ? refreshable::refresh : () -> {};
+            return new View(root, refresh);
         } catch (IOException e) {
-            System.err.println("Error loading categories: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    private void loadSales() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/Sales.fxml"));
-            contentArea.getChildren().clear();
-            contentArea.getChildren().add(loader.load());
-        } catch (IOException e) {
-            System.err.println("Error loading sales: " + e.getMessage());
-            e.printStackTrace();
+            throw new UncheckedIOException("Error loading " + resource, e);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.pos;
 
+import com.pos.database.DatabaseManager;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -21,6 +22,11 @@ public class Main extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        DatabaseManager.closeConnection();
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,10 +1,28 @@
 package com.pos;
 
 import com.pos.database.DatabaseManager;
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.DomainEvent.SaleRecorded;
+import com.pos.events.EventBus;
 import com.pos.models.*;
 import com.pos.repository.*;
+import com.pos.services.CheckoutService;
+import com.pos.services.ImageStore;
+import com.pos.services.ProductImportService;
+import com.pos.services.SalesExportService;
 import com.pos.utils.AlertUtils;
+import com.pos.utils.CategoryRows;
+import com.pos.utils.CellValues;
+import com.pos.utils.FxAsync;
+import com.pos.utils.LiveCatalog;
+import com.pos.utils.MoneyFormatter;
+import com.pos.utils.MoneyTableCell;
+import com.pos.utils.ProductFilter;
+import com.pos.utils.ThumbnailTableCell;
+import com.pos.utils.ViewRegistry;
+import com.pos.utils.ViewRegistry.View;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -12,31 +30,44 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.File;
-import java.sql.SQLException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class POSApplication extends Application {
     
+    private static final int RECENT_SALES_LIMIT = 10;
+    
+    private static final String DASHBOARD = "dashboard";
+    private static final String PRODUCTS = "products";
+    private static final String CATEGORIES = "categories";
+    private static final String SALES = "sales";
+    
     private Stage primaryStage;
     private BorderPane mainLayout;
     private StackPane contentArea;
+    private ViewRegistry views;
+    private final EventBus events = EventBus.getInstance();
+    private final LiveCatalog catalog = LiveCatalog.getInstance();
     
     // Repositories
     private ProductRepository productRepo;
     private CategoryRepository categoryRepo;
     private SaleRepository saleRepo;
+    private StatsRepository statsRepo;
+    private CheckoutService checkoutService;
+    private ProductImportService importService;
+    private SalesExportService exportService;
+    private ImageStore imageStore;
     
     @Override
     public void start(Stage stage) {
@@ -50,6 +81,11 @@ public class POSApplication extends Application {
             productRepo = new ProductRepository();
             categoryRepo = new CategoryRepository();
             saleRepo = new SaleRepository();
+            statsRepo = new StatsRepository();
+            checkoutService = new CheckoutService(saleRepo, productRepo);
+            importService = new ProductImportService(productRepo, categoryRepo);
+            exportService = new SalesExportService(saleRepo);
+            imageStore = ImageStore.getInstance();
             
             // Create main layout
             mainLayout = new BorderPane();
@@ -58,12 +94,17 @@ public class POSApplication extends Application {
             VBox sidebar = createSidebar();
             mainLayout.setLeft(sidebar);
             
-            // Create content area
+            // Create content area; each screen is built once and kept
             contentArea = new StackPane();
             mainLayout.setCenter(contentArea);
+            views = new ViewRegistry(contentArea);
+            views.register(DASHBOARD, this::createDashboard);
+            views.register(PRODUCTS, this::createProducts);
+            views.register(CATEGORIES, this::createCategories);
+            views.register(SALES, this::createSales);
             
             // Load dashboard by default
-            showDashboard();
+            views.show(DASHBOARD);
             
             // Create scene
             Scene scene = new Scene(mainLayout, 1200, 800);
@@ -75,6 +116,11 @@ public class POSApplication extends Application {
             stage.setMinHeight(700);
             stage.show();
             
+            // Build the other screens while the dashboard is idle, so the first visit is instant
+            if (Boolean.parseBoolean(System.getProperty("pos.views.preload", "true"))) {
+                views.preload();
+            }
+            
         } catch (Exception e) {
             AlertUtils.showError("Startup Error", "Failed to start application: " + e.getMessage());
             e.printStackTrace();
@@ -94,10 +140,10 @@ public class POSApplication extends Application {
         Button categoriesBtn = createSidebarButton("📁 Categories");
         Button salesBtn = createSidebarButton("🛒 Sales");
         
-        dashboardBtn.setOnAction(e -> showDashboard());
-        productsBtn.setOnAction(e -> showProducts());
-        categoriesBtn.setOnAction(e -> showCategories());
-        salesBtn.setOnAction(e -> showSales());
+        dashboardBtn.setOnAction(e -> views.show(DASHBOARD));
+        productsBtn.setOnAction(e -> views.show(PRODUCTS));
+        categoriesBtn.setOnAction(e -> views.show(CATEGORIES));
+        salesBtn.setOnAction(e -> views.show(SALES));
         
         sidebar.getChildren().addAll(title, new Separator(), dashboardBtn, productsBtn, categoriesBtn, salesBtn);
         return sidebar;
@@ -112,7 +158,7 @@ public class POSApplication extends Application {
     
     // ==================== DASHBOARD ====================
     
-    private void showDashboard() {
+    private View createDashboard() {
         VBox dashboard = new VBox(20);
         dashboard.setPadding(new Insets(20));
         dashboard.getStyleClass().add("page-container");
@@ -125,95 +171,188 @@ public class POSApplication extends Application {
         statsGrid.setHgap(20);
         statsGrid.setVgap(20);
         
-        try {
-            int totalProducts = productRepo.findAll().size();
-            int totalCategories = categoryRepo.findAll().size();
-            int totalSales = saleRepo.getTotalSalesCount();
-            double totalRevenue = saleRepo.getTotalRevenue();
-            
-            statsGrid.add(createStatCard("Total Products", String.valueOf(totalProducts), "#0984e3"), 0, 0);
-            statsGrid.add(createStatCard("Total Categories", String.valueOf(totalCategories), "#00b894"), 1, 0);
-            statsGrid.add(createStatCard("Total Sales", String.valueOf(totalSales), "#fdcb6e"), 2, 0);
-            statsGrid.add(createStatCard("Total Revenue", String.format("$%.2f", totalRevenue), "#e17055"), 3, 0);
-            
-            // Recent Sales Table
-            Label recentLabel = new Label("Recent Sales");
-            recentLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
-            
-            TableView<Sale> recentSalesTable = new TableView<>();
-            recentSalesTable.setMaxHeight(300);
-            
-            TableColumn<Sale, Integer> idCol = new TableColumn<>("Sale ID");
-            idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-            idCol.setPrefWidth(80);
-            
-            TableColumn<Sale, String> amountCol = new TableColumn<>("Amount");
-            amountCol.setCellValueFactory(cellData -> 
-                new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getTotalAmount())));
-            amountCol.setPrefWidth(100);
-            
-            TableColumn<Sale, String> dateCol = new TableColumn<>("Date");
-            dateCol.setCellValueFactory(cellData -> 
-                new SimpleStringProperty(cellData.getValue().getSaleDate()
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))));
-            dateCol.setPrefWidth(150);
-            
-            TableColumn<Sale, String> itemsCol = new TableColumn<>("Items");
-            itemsCol.setCellValueFactory(cellData -> {
-                try {
-                    List<SaleItem> items = saleRepo.findSaleItems(cellData.getValue().getId());
-                    return new SimpleStringProperty(String.valueOf(items.size()));
-                } catch (SQLException e) {
-                    return new SimpleStringProperty("0");
-                }
-            });
-            itemsCol.setPrefWidth(60);
+        Label productsValue = new Label("…");
+        Label categoriesValue = new Label("…");
+        Label salesValue = new Label("…");
+        Label revenueValue = new Label("…");
+        statsGrid.add(createStatCard("Total Products", productsValue, "#0984e3"), 0, 0);
+        statsGrid.add(createStatCard("Total Categories", categoriesValue, "#00b894"), 1, 0);
+        statsGrid.add(createStatCard("Total Sales", salesValue, "#fdcb6e"), 2, 0);
+        statsGrid.add(createStatCard("Total Revenue", revenueValue, "#e17055"), 3, 0);
+        
+        // Recent Sales Table
+        Label recentLabel = new Label("Recent Sales");
+        recentLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+        
+        Region recentSpacer = new Region();
+        HBox.setHgrow(recentSpacer, Priority.ALWAYS);
+        
+        Button exportBtn = new Button("📤 Export Sales");
+        exportBtn.getStyleClass().add("secondary-button");
+        exportBtn.setOnAction(e -> showExportSalesDialog());
+        
+        HBox recentHeader = new HBox(10, recentLabel, recentSpacer, exportBtn);
+        recentHeader.setAlignment(Pos.CENTER_LEFT);
+        
+        TableView<Sale> recentSalesTable = new TableView<>();
+        recentSalesTable.setMaxHeight(300);
+        
+        TableColumn<Sale, Integer> idCol = new TableColumn<>("Sale ID");
+        idCol.setCellValueFactory(CellValues.of(Sale::getId));
+        idCol.setPrefWidth(80);
+        
+        TableColumn<Sale, Money> amountCol = new TableColumn<>("Amount");
+        amountCol.setCellValueFactory(CellValues.of(Sale::getTotalAmount));
+        amountCol.setCellFactory(MoneyTableCell.forTableColumn());
+        amountCol.setPrefWidth(100);
+        
+        TableColumn<Sale, String> dateCol = new TableColumn<>("Date");
+        dateCol.setCellValueFactory(cellData -> 
+            new SimpleStringProperty(cellData.getValue().getSaleDate()
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))));
+        dateCol.setPrefWidth(150);
+        
+        TableColumn<Sale, String> itemsCol = new TableColumn<>("Items");
+        // Counted by findRecent in one batched query, not per cell
+        itemsCol.setCellValueFactory(cellData -> 
+            new SimpleStringProperty(String.valueOf(cellData.getValue().getItemCount())));
+        itemsCol.setPrefWidth(60);
+        
+        TableColumn<Sale, Void> detailsCol = new TableColumn<>("Details");
+        detailsCol.setPrefWidth(80);
+        detailsCol.setCellFactory(col -> new TableCell<>() {
+            private final Button detailsBtn = new Button("View");
+            {
+                detailsBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
+            }
             
-            TableColumn<Sale, Void> detailsCol = new TableColumn<>("Details");
-            detailsCol.setPrefWidth(80);
-            detailsCol.setCellFactory(col -> new TableCell<>() {
-                private final Button detailsBtn = new Button("View");
-                {
-                    detailsBtn.setStyle("-fx-background-color: #3498db; -fx-text-fill: white;");
-                }
-                
-                @Override
-                protected void updateItem(Void item, boolean empty) {
-                    super.updateItem(item, empty);
-                    if (empty) {
-                        setGraphic(null);
-                    } else {
-                        Sale sale = getTableView().getItems().get(getIndex());
-                        detailsBtn.setOnAction(e -> showSaleDetails(sale));
-                        setGraphic(detailsBtn);
-                    }
+            @Override
+            protected void updateItem(Void item, boolean empty) {
+                super.updateItem(item, empty);
+                if (empty) {
+                    setGraphic(null);
+                } else {
+                    Sale sale = getTableView().getItems().get(getIndex());
+                    detailsBtn.setOnAction(e -> showSaleDetails(sale));
+                    setGraphic(detailsBtn);
                 }
-            });
-            
-            recentSalesTable.getColumns().addAll(idCol, amountCol, dateCol, itemsCol, detailsCol);
-            
-            List<Sale> sales = saleRepo.findAll();
-            if (sales.size() > 10) sales = sales.subList(0, 10);
-            recentSalesTable.setItems(FXCollections.observableArrayList(sales));
+            }
+        });
+        
+        recentSalesTable.getColumns().addAll(idCol, amountCol, dateCol, itemsCol, detailsCol);
+        
+        dashboard.getChildren().addAll(title, statsGrid, recentHeader, recentSalesTable);
+        
+        // Fill in the figures once the queries come back; the screen shows immediately. The
+        // counters are kept in memory, so they are simply read again on every visit
+        Runnable loadStats = () -> FxAsync.deliver(statsRepo.getDashboardStatsAsync(), figures -> {
+            productsValue.setText(String.valueOf(figures.productCount()));
+            categoriesValue.setText(String.valueOf(figures.categoryCount()));
+            salesValue.setText(String.valueOf(figures.saleCount()));
+            revenueValue.setText(MoneyFormatter.format(figures.totalRevenue()));
+        }, error -> {
+            AlertUtils.showError("Database Error", "Failed to load dashboard data");
+            error.printStackTrace();
+        });
+        
+        // Recent sales are loaded once; each new sale is then added at the top
+        Runnable loadRecentSales = ViewRegistry.firstShowOnly(() -> FxAsync.deliver(saleRepo.findRecentAsync(RECENT_SALES_LIMIT),
+            recentSales -> recentSalesTable.getItems().setAll(recentSales),
+            error -> {
+                AlertUtils.showError("Database Error", "Failed to load dashboard data");
+                error.printStackTrace();
+            }));
+        events.subscribe(SaleRecorded.class, Platform::runLater, event -> {
+            ObservableList<Sale> rows = recentSalesTable.getItems();
+            rows.add(0, event.sale());
+            if (rows.size() > RECENT_SALES_LIMIT) {
+                rows.remove(RECENT_SALES_LIMIT, rows.size());
+            }
+        });
+        
+        return new View(dashboard, () -> {
+            loadStats.run();
+            loadRecentSales.run();
+        });
+    }
+    
+    private void showExportSalesDialog() {
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Export Sales");
+        
+        GridPane grid = new GridPane();
+        grid.setPadding(new Insets(20));
+        grid.setHgap(10);
+        grid.setVgap(10);
+        
+        // Defaults to the current month so far
+        DatePicker fromPicker = new DatePicker(LocalDate.now().withDayOfMonth(1));
+        DatePicker toPicker = new DatePicker(LocalDate.now());
+        ComboBox<SalesExportService.Format> formatCombo =
+            new ComboBox<>(FXCollections.observableArrayList(SalesExportService.Format.values()));
+        formatCombo.setValue(SalesExportService.Format.CSV);
+        
+        grid.add(new Label("From:"), 0, 0);
+        grid.add(fromPicker, 1, 0);
+        grid.add(new Label("To:"), 0, 1);
+        grid.add(toPicker, 1, 1);
+        grid.add(new Label("Format:"), 0, 2);
+        grid.add(formatCombo, 1, 2);
+        
+        Button exportBtn = new Button("Export");
+        exportBtn.getStyleClass().add("primary-button");
+        Button cancelBtn = new Button("Cancel");
+        cancelBtn.getStyleClass().add("secondary-button");
+        
+        HBox buttons = new HBox(10, exportBtn, cancelBtn);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        grid.add(buttons, 0, 3, 2, 1);
+        
+        exportBtn.setOnAction(e -> {
+            LocalDate from = fromPicker.getValue();
+            LocalDate to = toPicker.getValue();
+            SalesExportService.Format format = formatCombo.getValue();
+            if (from == null || to == null || to.isBefore(from)) {
+                AlertUtils.showWarning("Validation", "Please choose a valid date range");
+                return;
+            }
             
-            dashboard.getChildren().addAll(title, statsGrid, recentLabel, recentSalesTable);
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Export Sales");
+            fileChooser.setInitialFileName("sales-" + from + "-to-" + to + "." + format.getExtension());
+            File file = fileChooser.showSaveDialog(dialog);
+            if (file == null) {
+                return;
+            }
             
-        } catch (SQLException e) {
-            AlertUtils.showError("Database Error", "Failed to load dashboard data");
-            e.printStackTrace();
-        }
+            // The range includes the whole of the "to" day
+            exportBtn.setDisable(true);
+            FxAsync.deliver(exportService.exportAsync(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), format, file.toPath()),
+                result -> {
+                    dialog.close();
+                    AlertUtils.showInfo("Export Complete", result + "\nSaved to " + result.file());
+                }, error -> {
+                    exportBtn.setDisable(false);
+                    Throwable cause = error instanceof UncheckedIOException ? error.getCause() : error;
+                    AlertUtils.showError("Export Failed", cause.getMessage());
+                });
+        });
         
-        contentArea.getChildren().clear();
-        contentArea.getChildren().add(dashboard);
+        cancelBtn.setOnAction(e -> dialog.close());
+        
+        Scene scene = new Scene(grid, 360, 200);
+        scene.getStylesheets().add(getClass().getResource("/css/style.css").toExternalForm());
+        dialog.setScene(scene);
+        dialog.showAndWait();
     }
     
-    private VBox createStatCard(String label, String value, String color) {
+    private VBox createStatCard(String label, Label valueLabel, String color) {
         VBox card = new VBox(5);
         card.setPadding(new Insets(20));
         card.setAlignment(Pos.CENTER);
         card.getStyleClass().add("stat-card");
         
-        Label valueLabel = new Label(value);
         valueLabel.setStyle("-fx-font-size: 32px; -fx-font-weight: bold; -fx-text-fill: " + color + ";");
         
         Label labelText = new Label(label);
@@ -225,7 +364,7 @@ public class POSApplication extends Application {
     
     // ==================== PRODUCTS ====================
     
-    private void showProducts() {
+    private View createProducts() {
         VBox productsView = new VBox(15);
         productsView.setPadding(new Insets(20));
         productsView.getStyleClass().add("page-container");
@@ -237,6 +376,10 @@ public class POSApplication extends Application {
         Label title = new Label("Products Management");
         title.getStyleClass().add("page-title");
         
+        TextField searchField = new TextField();
+        searchField.setPromptText("🔍 Search products...");
+        searchField.getStyleClass().add("search-field");
+        
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         
@@ -250,34 +393,37 @@ public class POSApplication extends Application {
         Button deleteBtn = new Button("🗑️ Delete");
         deleteBtn.getStyleClass().add("danger-button");
         
+        Button importBtn = new Button("📥 Import CSV");
+        importBtn.getStyleClass().add("secondary-button");
+        
         Button refreshBtn = new Button("🔄 Refresh");
         refreshBtn.getStyleClass().add("secondary-button");
         
-        header.getChildren().addAll(title, spacer, addBtn, editBtn, deleteBtn, refreshBtn);
+        header.getChildren().addAll(title, searchField, spacer, addBtn, editBtn, deleteBtn, importBtn, refreshBtn);
         
         // Products Table
         TableView<Product> table = new TableView<>();
         table.getStyleClass().add("data-table");
         
         TableColumn<Product, Integer> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setCellValueFactory(CellValues.of(Product::getId));
         idCol.setPrefWidth(50);
         
         TableColumn<Product, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(CellValues.of(Product::getName));
         nameCol.setPrefWidth(200);
         
         TableColumn<Product, String> categoryCol = new TableColumn<>("Category");
-        categoryCol.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
+        categoryCol.setCellValueFactory(CellValues.of(Product::getCategoryName));
         categoryCol.setPrefWidth(150);
         
-        TableColumn<Product, String> priceCol = new TableColumn<>("Price");
-        priceCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getPrice())));
+        TableColumn<Product, Money> priceCol = new TableColumn<>("Price");
+        priceCol.setCellValueFactory(CellValues.of(Product::getPrice));
+        priceCol.setCellFactory(MoneyTableCell.forTableColumn());
         priceCol.setPrefWidth(100);
         
         TableColumn<Product, Integer> stockCol = new TableColumn<>("Stock");
-        stockCol.setCellValueFactory(new PropertyValueFactory<>("stockQuantity"));
+        stockCol.setCellValueFactory(CellValues.of(Product::getStockQuantity));
         stockCol.setPrefWidth(80);
         
         TableColumn<Product, String> imageCol = new TableColumn<>("Image");
@@ -286,57 +432,18 @@ public class POSApplication extends Application {
         imageCol.setPrefWidth(80);
         
         // Add image display column
-        TableColumn<Product, Void> imageDisplayCol = new TableColumn<>("Preview");
+        TableColumn<Product, String> imageDisplayCol = new TableColumn<>("Preview");
+        imageDisplayCol.setCellValueFactory(CellValues.of(Product::getImagePath));
+        imageDisplayCol.setCellFactory(ThumbnailTableCell.forTableColumn(60, 40));
         imageDisplayCol.setPrefWidth(100);
-        imageDisplayCol.setCellFactory(col -> new TableCell<>() {
-            private final ImageView imageView = new ImageView();
-            {
-                imageView.setFitWidth(60);
-                imageView.setFitHeight(40);
-                imageView.setPreserveRatio(true);
-            }
-            
-            @Override
-            protected void updateItem(Void item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty) {
-                    setGraphic(null);
-                } else {
-                    Product product = getTableView().getItems().get(getIndex());
-                    if (product.getImagePath() != null && !product.getImagePath().isEmpty()) {
-                        try {
-                            File imageFile = new File(product.getImagePath());
-                            if (imageFile.exists()) {
-                                Image image = new Image(imageFile.toURI().toString());
-                                imageView.setImage(image);
-                            } else {
-                                imageView.setImage(null);
-                            }
-                        } catch (Exception e) {
-                            imageView.setImage(null);
-                        }
-                    } else {
-                        imageView.setImage(null);
-                    }
-                    setGraphic(imageView);
-                }
-            }
-        });
         
         table.getColumns().addAll(idCol, nameCol, categoryCol, priceCol, stockCol, imageCol, imageDisplayCol);
         
-        // Load data
-        try {
-            table.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-        } catch (SQLException e) {
-            AlertUtils.showError("Database Error", "Failed to load products");
-        }
-        
         // Button actions
         editBtn.setOnAction(e -> {
             Product selected = table.getSelectionModel().getSelectedItem();
             if (selected != null) {
-                showEditProductDialog(selected, table);
+                showEditProductDialog(selected);
             } else {
                 AlertUtils.showWarning("No Selection", "Please select a product to edit");
             }
@@ -347,32 +454,53 @@ public class POSApplication extends Application {
             if (selected != null) {
                 if (AlertUtils.showConfirmation("Delete Product", 
                     "Are you sure you want to delete '" + selected.getName() + "'?")) {
-                    try {
-                        productRepo.delete(selected.getId());
-                        table.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-                        AlertUtils.showInfo("Success", "Product deleted successfully");
-                    } catch (SQLException ex) {
-                        AlertUtils.showError("Error", "Failed to delete product");
-                    }
+                    FxAsync.deliver(productRepo.deleteAsync(selected.getId()),
+                        deleted -> AlertUtils.showInfo("Success", "Product deleted successfully"),
+                        error -> AlertUtils.showError("Error", "Failed to delete product"));
                 }
             } else {
                 AlertUtils.showWarning("No Selection", "Please select a product to delete");
             }
         });
         
-        refreshBtn.setOnAction(e -> {
-            try {
-                table.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-            } catch (SQLException ex) {
-                AlertUtils.showError("Error", "Failed to refresh products");
-            }
-        });
+        // Searching filters the shared catalog in memory once typing pauses, or at once on
+        // Enter; Refresh reloads the catalog itself
+        ProductFilter filter = new ProductFilter(catalog);
+        filter.showIn(table);
+        searchField.textProperty().addListener((obs, old, newVal) -> filter.setText(newVal));
+        searchField.setOnAction(e -> filter.searchNow(searchField.getText()));
+        refreshBtn.setOnAction(e -> catalog.reload());
+        importBtn.setOnAction(e -> importProducts(importBtn));
         
         productsView.getChildren().addAll(header, table);
         VBox.setVgrow(table, Priority.ALWAYS);
         
-        contentArea.getChildren().clear();
-        contentArea.getChildren().add(productsView);
+        return new View(productsView, catalog::load);
+    }
+    
+    private void importProducts(Button importBtn) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Products");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File file = fileChooser.showOpenDialog(primaryStage);
+        if (file == null) {
+            return;
+        }
+        
+        String label = importBtn.getText();
+        importBtn.setDisable(true);
+        FxAsync.deliver(importService.importCsvAsync(file.toPath(), progress -> Platform.runLater(() ->
+            importBtn.setText(String.format("Importing %.0f%%", progress.fraction() * 100)))), result -> {
+            importBtn.setText(label);
+            importBtn.setDisable(false);
+            String rejects = result.rejectsFile() == null ? "" : "\nRejected rows were saved to " + result.rejectsFile();
+            AlertUtils.showInfo("Import Complete", result + rejects);
+        }, error -> {
+            importBtn.setText(label);
+            importBtn.setDisable(false);
+            Throwable cause = error instanceof UncheckedIOException ? error.getCause() : error;
+            AlertUtils.showError("Import Failed", cause.getMessage());
+        });
     }
     
     private void showAddProductDialog() {
@@ -390,11 +518,9 @@ public class POSApplication extends Application {
         
         Label categoryLabel = new Label("Category:");
         ComboBox<Category> categoryCombo = new ComboBox<>();
-        try {
-            categoryCombo.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-        } catch (SQLException e) {
-            AlertUtils.showError("Error", "Failed to load categories");
-        }
+        FxAsync.deliver(categoryRepo.findAllAsync(),
+            categories -> categoryCombo.setItems(FXCollections.observableArrayList(categories)),
+            error -> AlertUtils.showError("Error", "Failed to load categories"));
         
         Label priceLabel = new Label("Price:");
         TextField priceField = new TextField();
@@ -402,6 +528,10 @@ public class POSApplication extends Application {
         Label stockLabel = new Label("Stock:");
         TextField stockField = new TextField();
         
+        Label barcodeLabel = new Label("Barcode:");
+        TextField barcodeField = new TextField();
+        barcodeField.setPromptText("Optional");
+        
         Label imageLabel = new Label("Image:");
         TextField imageField = new TextField();
         imageField.setEditable(false);
@@ -428,8 +558,10 @@ public class POSApplication extends Application {
         grid.add(priceField, 1, 2);
         grid.add(stockLabel, 0, 3);
         grid.add(stockField, 1, 3);
-        grid.add(imageLabel, 0, 4);
-        grid.add(imageBox, 1, 4);
+        grid.add(barcodeLabel, 0, 4);
+        grid.add(barcodeField, 1, 4);
+        grid.add(imageLabel, 0, 5);
+        grid.add(imageBox, 1, 5);
         
         Button saveBtn = new Button("Save");
         saveBtn.getStyleClass().add("primary-button");
@@ -438,13 +570,13 @@ public class POSApplication extends Application {
         
         HBox buttons = new HBox(10, saveBtn, cancelBtn);
         buttons.setAlignment(Pos.CENTER_RIGHT);
-        grid.add(buttons, 0, 5, 2, 1);
+        grid.add(buttons, 0, 6, 2, 1);
         
         saveBtn.setOnAction(e -> {
             try {
                 String name = nameField.getText().trim();
                 Category category = categoryCombo.getValue();
-                double price = Double.parseDouble(priceField.getText());
+                Money price = Money.parse(priceField.getText());
                 int stock = Integer.parseInt(stockField.getText());
                 String imagePath = imageField.getText();
                 
@@ -453,33 +585,41 @@ public class POSApplication extends Application {
                     return;
                 }
                 
-                if (price <= 0 || stock < 0) {
+                if (!price.isPositive() || stock < 0) {
                     AlertUtils.showWarning("Validation", "Price must be > 0 and stock >= 0");
                     return;
                 }
                 
-                Product product = new Product(name, category.getId(), price, stock, imagePath);
-                productRepo.save(product);
-                AlertUtils.showInfo("Success", "Product added successfully");
-                dialog.close();
-                showProducts(); // Refresh
+                Product product = new Product(name, category.getId(), price, stock, null);
+                product.setBarcode(barcodeField.getText());
+                saveBtn.setDisable(true);
+                // The product points at the image store's copy, never at the file that was picked
+                CompletableFuture<Integer> saved = imageStore.storeAsync(imagePath).thenComposeAsync(storedPath -> {
+                    product.setImagePath(storedPath);
+                    return productRepo.saveAsync(product);
+                }, Platform::runLater);
+                FxAsync.deliver(saved, id -> {
+                    AlertUtils.showInfo("Success", "Product added successfully");
+                    dialog.close();
+                }, error -> {
+                    saveBtn.setDisable(false);
+                    AlertUtils.showError("Error", "Failed to save product: " + error.getMessage());
+                });
                 
             } catch (NumberFormatException ex) {
                 AlertUtils.showWarning("Validation", "Invalid price or stock value");
-            } catch (SQLException ex) {
-                AlertUtils.showError("Error", "Failed to save product: " + ex.getMessage());
             }
         });
         
         cancelBtn.setOnAction(e -> dialog.close());
         
-        Scene scene = new Scene(grid, 400, 300);
+        Scene scene = new Scene(grid, 400, 340);
         scene.getStylesheets().add(getClass().getResource("/css/style.css").toExternalForm());
         dialog.setScene(scene);
         dialog.showAndWait();
     }
     
-    private void showEditProductDialog(Product product, TableView<Product> table) {
+    private void showEditProductDialog(Product product) {
         Stage dialog = new Stage();
         dialog.initModality(Modality.APPLICATION_MODAL);
         dialog.setTitle("Edit Product");
@@ -493,11 +633,12 @@ public class POSApplication extends Application {
         ComboBox<Category> categoryCombo = new ComboBox<>();
         TextField priceField = new TextField(String.valueOf(product.getPrice()));
         TextField stockField = new TextField(String.valueOf(product.getStockQuantity()));
+        TextField barcodeField = new TextField(product.getBarcode() != null ? product.getBarcode() : "");
+        barcodeField.setPromptText("Optional");
         TextField imageField = new TextField(product.getImagePath() != null ? product.getImagePath() : "");
         imageField.setEditable(false);
         
-        try {
-            List<Category> categories = categoryRepo.findAll();
+        FxAsync.deliver(categoryRepo.findAllAsync(), categories -> {
             categoryCombo.setItems(FXCollections.observableArrayList(categories));
             for (Category cat : categories) {
                 if (cat.getId() == product.getCategoryId()) {
@@ -505,9 +646,7 @@ public class POSApplication extends Application {
                     break;
                 }
             }
-        } catch (SQLException e) {
-            AlertUtils.showError("Error", "Failed to load categories");
-        }
+        }, error -> AlertUtils.showError("Error", "Failed to load categories"));
         
         Button browseBtn = new Button("Browse...");
         HBox imageBox = new HBox(5, imageField, browseBtn);
@@ -532,8 +671,10 @@ public class POSApplication extends Application {
         grid.add(priceField, 1, 2);
         grid.add(new Label("Stock:"), 0, 3);
         grid.add(stockField, 1, 3);
-        grid.add(new Label("Image:"), 0, 4);
-        grid.add(imageBox, 1, 4);
+        grid.add(new Label("Barcode:"), 0, 4);
+        grid.add(barcodeField, 1, 4);
+        grid.add(new Label("Image:"), 0, 5);
+        grid.add(imageBox, 1, 5);
         
         Button saveBtn = new Button("Save");
         saveBtn.getStyleClass().add("primary-button");
@@ -542,20 +683,31 @@ public class POSApplication extends Application {
         
         HBox buttons = new HBox(10, saveBtn, cancelBtn);
         buttons.setAlignment(Pos.CENTER_RIGHT);
-        grid.add(buttons, 0, 5, 2, 1);
+        grid.add(buttons, 0, 6, 2, 1);
         
         saveBtn.setOnAction(e -> {
             try {
-                product.setName(nameField.getText().trim());
-                product.setCategoryId(categoryCombo.getValue().getId());
-                product.setPrice(Double.parseDouble(priceField.getText()));
-                product.setStockQuantity(Integer.parseInt(stockField.getText()));
-                product.setImagePath(imageField.getText());
+                // Edit a copy: the selected row is shared with the catalog, and a failed save
+                // must leave it as it was. The table gets the saved row from the change event
+                Product edited = new Product(product);
+                edited.setName(nameField.getText().trim());
+                edited.setCategoryId(categoryCombo.getValue().getId());
+                edited.setPrice(Money.parse(priceField.getText()));
+                edited.setStockQuantity(Integer.parseInt(stockField.getText()));
+                edited.setBarcode(barcodeField.getText());
                 
-                productRepo.update(product);
-                AlertUtils.showInfo("Success", "Product updated successfully");
-                dialog.close();
-                table.setItems(FXCollections.observableArrayList(productRepo.findAll()));
+                saveBtn.setDisable(true);
+                CompletableFuture<Boolean> updated = imageStore.storeAsync(imageField.getText()).thenComposeAsync(storedPath -> {
+                    edited.setImagePath(storedPath);
+                    return productRepo.updateAsync(edited);
+                }, Platform::runLater);
+                FxAsync.deliver(updated, done -> {
+                    AlertUtils.showInfo("Success", "Product updated successfully");
+                    dialog.close();
+                }, error -> {
+                    saveBtn.setDisable(false);
+                    AlertUtils.showError("Error", "Failed to update product: " + error.getMessage());
+                });
                 
             } catch (Exception ex) {
                 AlertUtils.showError("Error", "Failed to update product: " + ex.getMessage());
@@ -564,7 +716,7 @@ public class POSApplication extends Application {
         
         cancelBtn.setOnAction(e -> dialog.close());
         
-        Scene scene = new Scene(grid, 400, 300);
+        Scene scene = new Scene(grid, 400, 340);
         scene.getStylesheets().add(getClass().getResource("/css/style.css").toExternalForm());
         dialog.setScene(scene);
         dialog.showAndWait();
@@ -572,7 +724,7 @@ public class POSApplication extends Application {
     
     // ==================== CATEGORIES ====================
     
-    private void showCategories() {
+    private View createCategories() {
         VBox categoriesView = new VBox(15);
         categoriesView.setPadding(new Insets(20));
         categoriesView.getStyleClass().add("page-container");
@@ -606,33 +758,26 @@ public class POSApplication extends Application {
         table.getStyleClass().add("data-table");
         
         TableColumn<Category, Integer> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setCellValueFactory(CellValues.of(Category::getId));
         idCol.setPrefWidth(80);
         
         TableColumn<Category, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(CellValues.of(Category::getName));
         nameCol.setPrefWidth(200);
         
         TableColumn<Category, String> descCol = new TableColumn<>("Description");
-        descCol.setCellValueFactory(new PropertyValueFactory<>("description"));
+        descCol.setCellValueFactory(CellValues.of(Category::getDescription));
         descCol.setPrefWidth(400);
         
         table.getColumns().addAll(idCol, nameCol, descCol);
         
-        // Load data
-        try {
-            table.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-        } catch (SQLException e) {
-            AlertUtils.showError("Database Error", "Failed to load categories");
-        }
-        
         // Button actions
-        addBtn.setOnAction(e -> showAddCategoryDialog(table));
+        addBtn.setOnAction(e -> showAddCategoryDialog());
         
         editBtn.setOnAction(e -> {
             Category selected = table.getSelectionModel().getSelectedItem();
             if (selected != null) {
-                showEditCategoryDialog(selected, table);
+                showEditCategoryDialog(selected);
             } else {
                 AlertUtils.showWarning("No Selection", "Please select a category to edit");
             }
@@ -641,8 +786,8 @@ public class POSApplication extends Application {
         deleteBtn.setOnAction(e -> {
             Category selected = table.getSelectionModel().getSelectedItem();
             if (selected != null) {
-                try {
-                    if (categoryRepo.hasProducts(selected.getId())) {
+                FxAsync.deliver(categoryRepo.hasProductsAsync(selected.getId()), hasProducts -> {
+                    if (hasProducts) {
                         AlertUtils.showWarning("Cannot Delete", 
                             "This category has products. Please reassign or delete them first.");
                         return;
@@ -650,34 +795,34 @@ public class POSApplication extends Application {
                     
                     if (AlertUtils.showConfirmation("Delete Category", 
                         "Are you sure you want to delete '" + selected.getName() + "'?")) {
-                        categoryRepo.delete(selected.getId());
-                        table.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-                        AlertUtils.showInfo("Success", "Category deleted successfully");
+                        FxAsync.deliver(categoryRepo.deleteAsync(selected.getId()),
+                            deleted -> AlertUtils.showInfo("Success", "Category deleted successfully"),
+                            error -> AlertUtils.showError("Error", "Failed to delete category"));
                     }
-                } catch (SQLException ex) {
-                    AlertUtils.showError("Error", "Failed to delete category");
-                }
+                }, error -> AlertUtils.showError("Error", "Failed to delete category"));
             } else {
                 AlertUtils.showWarning("No Selection", "Please select a category to delete");
             }
         });
         
-        refreshBtn.setOnAction(e -> {
-            try {
-                table.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-            } catch (SQLException ex) {
-                AlertUtils.showError("Error", "Failed to refresh categories");
-            }
-        });
+        refreshBtn.setOnAction(e -> loadCategories(table, "Failed to refresh categories"));
+        
+        // Changes made anywhere patch only the row they touch
+        events.subscribe(CategoryChanged.class, Platform::runLater, event -> CategoryRows.apply(table.getItems(), event));
         
         categoriesView.getChildren().addAll(header, table);
         VBox.setVgrow(table, Priority.ALWAYS);
         
-        contentArea.getChildren().clear();
-        contentArea.getChildren().add(categoriesView);
+        return new View(categoriesView, ViewRegistry.firstShowOnly(() -> loadCategories(table, "Failed to load categories")));
+    }
+    
+    private void loadCategories(TableView<Category> table, String errorMessage) {
+        FxAsync.deliver(categoryRepo.findAllAsync(),
+            categories -> table.getItems().setAll(categories),
+            error -> AlertUtils.showError("Database Error", errorMessage));
     }
     
-    private void showAddCategoryDialog(TableView<Category> table) {
+    private void showAddCategoryDialog() {
         Stage dialog = new Stage();
         dialog.initModality(Modality.APPLICATION_MODAL);
         dialog.setTitle("Add Category");
@@ -706,22 +851,21 @@ public class POSApplication extends Application {
         grid.add(buttons, 0, 2, 2, 1);
         
         saveBtn.setOnAction(e -> {
-            try {
-                String name = nameField.getText().trim();
-                if (name.isEmpty()) {
-                    AlertUtils.showWarning("Validation", "Name is required");
-                    return;
-                }
-                
-                Category category = new Category(name, descField.getText().trim());
-                categoryRepo.save(category);
+            String name = nameField.getText().trim();
+            if (name.isEmpty()) {
+                AlertUtils.showWarning("Validation", "Name is required");
+                return;
+            }
+            
+            Category category = new Category(name, descField.getText().trim());
+            saveBtn.setDisable(true);
+            FxAsync.deliver(categoryRepo.saveAsync(category), id -> {
                 AlertUtils.showInfo("Success", "Category added successfully");
                 dialog.close();
-                table.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-                
-            } catch (SQLException ex) {
-                AlertUtils.showError("Error", "Failed to save category: " + ex.getMessage());
-            }
+            }, error -> {
+                saveBtn.setDisable(false);
+                AlertUtils.showError("Error", "Failed to save category: " + error.getMessage());
+            });
         });
         
         cancelBtn.setOnAction(e -> dialog.close());
@@ -732,7 +876,7 @@ public class POSApplication extends Application {
         dialog.showAndWait();
     }
     
-    private void showEditCategoryDialog(Category category, TableView<Category> table) {
+    private void showEditCategoryDialog(Category category) {
         Stage dialog = new Stage();
         dialog.initModality(Modality.APPLICATION_MODAL);
         dialog.setTitle("Edit Category");
@@ -761,18 +905,17 @@ public class POSApplication extends Application {
         grid.add(buttons, 0, 2, 2, 1);
         
         saveBtn.setOnAction(e -> {
-            try {
-                category.setName(nameField.getText().trim());
-                category.setDescription(descField.getText().trim());
-                
-                categoryRepo.update(category);
+            // Saved as a copy; the table row changes only through the event once it commits
+            Category edited = new Category(category.getId(), nameField.getText().trim(), descField.getText().trim());
+            
+            saveBtn.setDisable(true);
+            FxAsync.deliver(categoryRepo.updateAsync(edited), updated -> {
                 AlertUtils.showInfo("Success", "Category updated successfully");
                 dialog.close();
-                table.setItems(FXCollections.observableArrayList(categoryRepo.findAll()));
-                
-            } catch (SQLException ex) {
-                AlertUtils.showError("Error", "Failed to update category: " + ex.getMessage());
-            }
+            }, error -> {
+                saveBtn.setDisable(false);
+                AlertUtils.showError("Error", "Failed to update category: " + error.getMessage());
+            });
         });
         
         cancelBtn.setOnAction(e -> dialog.close());
@@ -785,7 +928,7 @@ public class POSApplication extends Application {
     
     // ==================== SALES ====================
     
-    private void showSales() {
+    private View createSales() {
         HBox salesView = new HBox(20);
         salesView.setPadding(new Insets(20));
         
@@ -796,34 +939,39 @@ public class POSApplication extends Application {
         Label productsTitle = new Label("Products");
         productsTitle.getStyleClass().add("section-title");
         
+        // Barcode scanners type the code followed by Enter
+        TextField scanField = new TextField();
+        scanField.setPromptText("Scan barcode...");
+        scanField.getStyleClass().add("search-field");
+        scanField.setOnAction(e -> scanBarcode(scanField));
+        
         TextField searchField = new TextField();
         searchField.setPromptText("🔍 Search products...");
         searchField.getStyleClass().add("search-field");
         
         ComboBox<Category> categoryFilter = new ComboBox<>();
         categoryFilter.setPromptText("Filter by category");
-        try {
-            List<Category> categories = categoryRepo.findAll();
+        // Reloaded whenever categories change, keeping the chosen category if it still exists
+        Runnable loadCategoryChoices = () -> FxAsync.deliver(categoryRepo.findAllAsync(), categories -> {
             categories.add(0, new Category(0, "All Categories", ""));
-            categoryFilter.setItems(FXCollections.observableArrayList(categories));
-            categoryFilter.setValue(categories.get(0));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            int selected = categories.indexOf(categoryFilter.getValue());
+            categoryFilter.getItems().setAll(categories);
+            categoryFilter.setValue(categories.get(Math.max(0, selected)));
+        }, Throwable::printStackTrace);
         
         TableView<Product> productsTable = new TableView<>();
         
         TableColumn<Product, String> nameCol = new TableColumn<>("Name");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(CellValues.of(Product::getName));
         nameCol.setPrefWidth(200);
         
-        TableColumn<Product, String> priceCol = new TableColumn<>("Price");
-        priceCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getPrice())));
+        TableColumn<Product, Money> priceCol = new TableColumn<>("Price");
+        priceCol.setCellValueFactory(CellValues.of(Product::getPrice));
+        priceCol.setCellFactory(MoneyTableCell.forTableColumn());
         priceCol.setPrefWidth(80);
         
         TableColumn<Product, Integer> stockCol = new TableColumn<>("Stock");
-        stockCol.setCellValueFactory(new PropertyValueFactory<>("stockQuantity"));
+        stockCol.setCellValueFactory(CellValues.of(Product::getStockQuantity));
         stockCol.setPrefWidth(60);
         
         TableColumn<Product, Void> actionCol = new TableColumn<>("Action");
@@ -849,43 +997,38 @@ public class POSApplication extends Application {
         
         productsTable.getColumns().addAll(nameCol, priceCol, stockCol, actionCol);
         
-        // Load products
-        try {
-            productsTable.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
-        // Search functionality
-        searchField.textProperty().addListener((obs, old, newVal) -> {
-            try {
-                if (newVal.trim().isEmpty()) {
-                    productsTable.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-                } else {
-                    productsTable.setItems(FXCollections.observableArrayList(
-                        productRepo.searchByName(newVal)));
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        });
-        
-        // Category filter
+        // Search, category, price range and stock filters all apply together, in memory over
+        // the shared catalog
+        ProductFilter filter = new ProductFilter(catalog);
+        filter.showIn(productsTable);
+        searchField.textProperty().addListener((obs, old, newVal) -> filter.setText(newVal));
+        searchField.setOnAction(e -> filter.searchNow(searchField.getText()));
         categoryFilter.setOnAction(e -> {
-            try {
-                Category selected = categoryFilter.getValue();
-                if (selected != null && selected.getId() == 0) {
-                    productsTable.setItems(FXCollections.observableArrayList(productRepo.findAll()));
-                } else if (selected != null) {
-                    productsTable.setItems(FXCollections.observableArrayList(
-                        productRepo.findByCategory(selected.getId())));
-                }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
+            Category selected = categoryFilter.getValue();
+            filter.setCategoryId(selected == null ? 0 : selected.getId());
         });
         
-        leftSide.getChildren().addAll(productsTitle, searchField, categoryFilter, productsTable);
+        TextField minPriceField = new TextField();
+        minPriceField.setPromptText("Min price");
+        minPriceField.setPrefWidth(90);
+        TextField maxPriceField = new TextField();
+        maxPriceField.setPromptText("Max price");
+        maxPriceField.setPrefWidth(90);
+        Runnable applyPriceRange = () -> filter.setPriceRange(
+            ProductFilter.priceBound(minPriceField.getText()), ProductFilter.priceBound(maxPriceField.getText()));
+        minPriceField.textProperty().addListener((obs, old, newVal) -> applyPriceRange.run());
+        maxPriceField.textProperty().addListener((obs, old, newVal) -> applyPriceRange.run());
+        
+        CheckBox inStockBox = new CheckBox("In stock only");
+        inStockBox.selectedProperty().addListener((obs, old, selected) -> filter.setInStockOnly(selected));
+        
+        HBox filters = new HBox(10, categoryFilter, minPriceField, maxPriceField, inStockBox);
+        filters.setAlignment(Pos.CENTER_LEFT);
+        
+        // Category names and choices change with category edits made on the other screen
+        events.subscribe(CategoryChanged.class, Platform::runLater, event -> loadCategoryChoices.run());
+        
+        leftSide.getChildren().addAll(productsTitle, scanField, searchField, filters, productsTable);
         VBox.setVgrow(productsTable, Priority.ALWAYS);
         
         // Right side - Cart
@@ -899,10 +1042,11 @@ public class POSApplication extends Application {
         TableView<SaleItem> cartTable = new TableView<>();
         
         TableColumn<SaleItem, String> cartNameCol = new TableColumn<>("Product");
-        cartNameCol.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        cartNameCol.setCellValueFactory(CellValues.of(SaleItem::getProductName));
         cartNameCol.setPrefWidth(150);
         
-        TableColumn<SaleItem, Void> qtyCol = new TableColumn<>("Qty");
+        TableColumn<SaleItem, Integer> qtyCol = new TableColumn<>("Qty");
+        qtyCol.setCellValueFactory(CellValues.observe(SaleItem::quantityProperty));
         qtyCol.setPrefWidth(100);
         qtyCol.setCellFactory(col -> new TableCell<>() {
             private final HBox qtyBox = new HBox(5);
@@ -919,20 +1063,19 @@ public class POSApplication extends Application {
                 qtyBox.getChildren().addAll(minusBtn, qtyLabel, plusBtn);
             }
             
+            // Called again whenever the item's quantity changes
             @Override
-            protected void updateItem(Void item, boolean empty) {
+            protected void updateItem(Integer item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                if (empty || item == null) {
                     setGraphic(null);
                 } else {
                     SaleItem saleItem = getTableView().getItems().get(getIndex());
-                    qtyLabel.setText(String.valueOf(saleItem.getQuantity()));
+                    qtyLabel.setText(String.valueOf(item));
                     
                     minusBtn.setOnAction(e -> {
                         if (saleItem.getQuantity() > 1) {
                             saleItem.setQuantity(saleItem.getQuantity() - 1);
-                            qtyLabel.setText(String.valueOf(saleItem.getQuantity()));
-                            cartTable.refresh(); // Refresh table to update subtotal
                             updateTotal(null);
                         } else {
                             cartItems.remove(saleItem);
@@ -942,19 +1085,14 @@ public class POSApplication extends Application {
                     
                     plusBtn.setOnAction(e -> {
                         // Check stock limit
-                        try {
-                            Product product = productRepo.findById(saleItem.getProductId());
+                        FxAsync.deliver(productRepo.findByIdAsync(saleItem.getProductId()), product -> {
                             if (product != null && saleItem.getQuantity() < product.getStockQuantity()) {
                                 saleItem.setQuantity(saleItem.getQuantity() + 1);
-                                qtyLabel.setText(String.valueOf(saleItem.getQuantity()));
-                                cartTable.refresh(); // Refresh table to update subtotal
                                 updateTotal(null);
                             } else {
                                 AlertUtils.showWarning("Stock Limit", "Cannot add more. Stock limit reached.");
                             }
-                        } catch (SQLException ex) {
-                            AlertUtils.showError("Error", "Failed to check stock");
-                        }
+                        }, error -> AlertUtils.showError("Error", "Failed to check stock"));
                     });
                     
                     setGraphic(qtyBox);
@@ -962,11 +1100,9 @@ public class POSApplication extends Application {
             }
         });
         
-        TableColumn<SaleItem, String> subtotalCol = new TableColumn<>("Subtotal");
-        subtotalCol.setCellValueFactory(cellData -> {
-            SaleItem item = cellData.getValue();
-            return new SimpleStringProperty(String.format("$%.2f", item.getQuantity() * item.getUnitPrice()));
-        });
+        TableColumn<SaleItem, Money> subtotalCol = new TableColumn<>("Subtotal");
+        subtotalCol.setCellValueFactory(CellValues.observe(SaleItem::subtotalProperty));
+        subtotalCol.setCellFactory(MoneyTableCell.forTableColumn());
         subtotalCol.setPrefWidth(80);
         
         Label totalLabel = new Label("Total: $0.00");
@@ -999,20 +1135,10 @@ public class POSApplication extends Application {
         cartTable.getColumns().addAll(cartNameCol, qtyCol, subtotalCol, removeCol);
         cartTable.setItems(cartItems);
         
-        // Add listener to refresh table when items change
-        cartItems.addListener((javafx.collections.ListChangeListener<SaleItem>) change -> {
-            while (change.next()) {
-                if (change.wasUpdated()) {
-                    // Refresh the table to show updated subtotals
-                    cartTable.refresh();
-                }
-            }
-        });
-        
         Button processBtn = new Button("💳 Process Sale");
         processBtn.setMaxWidth(Double.MAX_VALUE);
         processBtn.getStyleClass().add("success-button");
-        processBtn.setOnAction(e -> processSale(totalLabel));
+        processBtn.setOnAction(e -> processSale(totalLabel, processBtn));
         
         Button clearBtn = new Button("Clear Cart");
         clearBtn.setMaxWidth(Double.MAX_VALUE);
@@ -1028,12 +1154,42 @@ public class POSApplication extends Application {
         salesView.getChildren().addAll(leftSide, rightSide);
         HBox.setHgrow(leftSide, Priority.ALWAYS);
         
-        contentArea.getChildren().clear();
-        contentArea.getChildren().add(salesView);
+        // Loaded on the first visit only; change events keep the products and categories current
+        Runnable loadCategoriesOnce = ViewRegistry.firstShowOnly(loadCategoryChoices);
+        Runnable refresh = () -> {
+            catalog.load();
+            loadCategoriesOnce.run();
+            updateTotal(totalLabel);
+            Platform.runLater(scanField::requestFocus);
+        };
+        
+        return new View(salesView, refresh);
     }
     
     private ObservableList<SaleItem> cartItems = FXCollections.observableArrayList();
     
+    // A cached catalog answers the scan in memory; only a miss goes to the database
+    private void scanBarcode(TextField scanField) {
+        String barcode = scanField.getText().trim();
+        scanField.clear();
+        if (barcode.isEmpty()) {
+            return;
+        }
+        
+        Product product = productRepo.findByBarcodeCached(barcode);
+        if (product != null) {
+            addToCart(product);
+            return;
+        }
+        FxAsync.deliver(productRepo.findByBarcodeAsync(barcode), found -> {
+            if (found != null) {
+                addToCart(found);
+            } else {
+                AlertUtils.showWarning("Unknown Barcode", "No product has barcode " + barcode);
+            }
+        }, error -> AlertUtils.showError("Error", "Failed to look up barcode"));
+    }
+    
     private void addToCart(Product product) {
         if (product.getStockQuantity() <= 0) {
             AlertUtils.showWarning("Out of Stock", "This product is out of stock");
@@ -1048,8 +1204,6 @@ public class POSApplication extends Application {
                     return;
                 }
                 item.setQuantity(item.getQuantity() + 1);
-                // Force table refresh to update subtotal
-                cartItems.set(cartItems.indexOf(item), item);
                 updateTotal(null);
                 return;
             }
@@ -1062,15 +1216,19 @@ public class POSApplication extends Application {
     }
     
     private void updateTotal(Label totalLabel) {
-        double total = cartItems.stream().mapToDouble(item -> item.getQuantity() * item.getUnitPrice()).sum();
+        Money sum = Money.ZERO;
+        for (SaleItem item : cartItems) {
+            sum = sum.plus(item.getSubtotal());
+        }
+        String total = "Total: " + MoneyFormatter.format(sum);
         if (totalLabel != null) {
-            totalLabel.setText(String.format("Total: $%.2f", total));
+            totalLabel.setText(total);
         }
         
         // Find and update any total label in the scene
         contentArea.lookupAll(".total-label").forEach(node -> {
             if (node instanceof Label) {
-                ((Label) node).setText(String.format("Total: $%.2f", total));
+                ((Label) node).setText(total);
             }
         });
     }
@@ -1088,7 +1246,7 @@ public class POSApplication extends Application {
         Label saleIdLabel = new Label("Sale ID: #" + sale.getId());
         saleIdLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
         Label dateLabel = new Label("Date: " + sale.getSaleDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
-        Label totalLabel = new Label("Total: $" + String.format("%.2f", sale.getTotalAmount()));
+        Label totalLabel = new Label("Total: " + MoneyFormatter.format(sale.getTotalAmount()));
         totalLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #27ae60;");
         header.getChildren().addAll(saleIdLabel, dateLabel, totalLabel);
         
@@ -1096,69 +1254,34 @@ public class POSApplication extends Application {
         TableView<SaleItem> itemsTable = new TableView<>();
         
         TableColumn<SaleItem, String> productCol = new TableColumn<>("Product");
-        productCol.setCellValueFactory(new PropertyValueFactory<>("productName"));
+        productCol.setCellValueFactory(CellValues.of(SaleItem::getProductName));
         productCol.setPrefWidth(200);
         
         TableColumn<SaleItem, Integer> qtyCol = new TableColumn<>("Qty");
-        qtyCol.setCellValueFactory(new PropertyValueFactory<>("quantity"));
+        qtyCol.setCellValueFactory(CellValues.of(SaleItem::getQuantity));
         qtyCol.setPrefWidth(60);
         
-        TableColumn<SaleItem, String> priceCol = new TableColumn<>("Unit Price");
-        priceCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getUnitPrice())));
+        TableColumn<SaleItem, Money> priceCol = new TableColumn<>("Unit Price");
+        priceCol.setCellValueFactory(CellValues.of(SaleItem::getUnitPrice));
+        priceCol.setCellFactory(MoneyTableCell.forTableColumn());
         priceCol.setPrefWidth(100);
         
-        TableColumn<SaleItem, String> subtotalCol = new TableColumn<>("Subtotal");
-        subtotalCol.setCellValueFactory(cellData -> 
-            new SimpleStringProperty(String.format("$%.2f", cellData.getValue().getSubtotal())));
+        TableColumn<SaleItem, Money> subtotalCol = new TableColumn<>("Subtotal");
+        subtotalCol.setCellValueFactory(CellValues.of(SaleItem::getSubtotal));
+        subtotalCol.setCellFactory(MoneyTableCell.forTableColumn());
         subtotalCol.setPrefWidth(100);
         
-        TableColumn<SaleItem, Void> imageCol = new TableColumn<>("Image");
+        // Image path comes with the sale items query; no lookup per cell
+        TableColumn<SaleItem, String> imageCol = new TableColumn<>("Image");
+        imageCol.setCellValueFactory(CellValues.of(SaleItem::getProductImagePath));
+        imageCol.setCellFactory(ThumbnailTableCell.forTableColumn(50, 40));
         imageCol.setPrefWidth(80);
-        imageCol.setCellFactory(col -> new TableCell<>() {
-            private final ImageView imageView = new ImageView();
-            {
-                imageView.setFitWidth(50);
-                imageView.setFitHeight(40);
-                imageView.setPreserveRatio(true);
-            }
-            
-            @Override
-            protected void updateItem(Void item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty) {
-                    setGraphic(null);
-                } else {
-                    SaleItem saleItem = getTableView().getItems().get(getIndex());
-                    try {
-                        Product product = productRepo.findById(saleItem.getProductId());
-                        if (product != null && product.getImagePath() != null && !product.getImagePath().isEmpty()) {
-                            File imageFile = new File(product.getImagePath());
-                            if (imageFile.exists()) {
-                                Image image = new Image(imageFile.toURI().toString());
-                                imageView.setImage(image);
-                            } else {
-                                imageView.setImage(null);
-                            }
-                        } else {
-                            imageView.setImage(null);
-                        }
-                    } catch (Exception e) {
-                        imageView.setImage(null);
-                    }
-                    setGraphic(imageView);
-                }
-            }
-        });
         
         itemsTable.getColumns().addAll(productCol, qtyCol, priceCol, subtotalCol, imageCol);
         
-        try {
-            List<SaleItem> items = saleRepo.findSaleItems(sale.getId());
-            itemsTable.setItems(FXCollections.observableArrayList(items));
-        } catch (SQLException e) {
-            AlertUtils.showError("Error", "Failed to load sale items");
-        }
+        FxAsync.deliver(saleRepo.findSaleItemsAsync(sale.getId()),
+            items -> itemsTable.setItems(FXCollections.observableArrayList(items)),
+            error -> AlertUtils.showError("Error", "Failed to load sale items"));
         
         Button closeBtn = new Button("Close");
         closeBtn.getStyleClass().add("primary-button");
@@ -1173,54 +1296,36 @@ public class POSApplication extends Application {
         dialog.showAndWait();
     }
     
-    private void processSale(Label totalLabel) {
+    private void processSale(Label totalLabel, Button processBtn) {
         if (cartItems.isEmpty()) {
             AlertUtils.showWarning("Empty Cart", "Please add items to cart");
             return;
         }
         
-        try {
-            // Validate stock
-            for (SaleItem item : cartItems) {
-                Product product = productRepo.findById(item.getProductId());
-                if (product == null || product.getStockQuantity() < item.getQuantity()) {
-                    AlertUtils.showError("Insufficient Stock", 
-                        "Not enough stock for " + item.getProductName());
-                    return;
-                }
-            }
-            
-            // Create sale
-            double totalAmount = cartItems.stream().mapToDouble(item -> item.getQuantity() * item.getUnitPrice()).sum();
-            Sale sale = new Sale(totalAmount);
-            int saleId = saleRepo.save(sale);
-            
-            // Save sale items and update stock
-            List<SaleItem> itemsList = new ArrayList<>(cartItems);
-            for (SaleItem item : itemsList) {
-                item.setSaleId(saleId);
-                item.setSubtotal(item.getQuantity() * item.getUnitPrice()); // Calculate subtotal
-            }
-            saleRepo.saveSaleItems(saleId, itemsList);
-            
-            // Update stock
-            for (SaleItem item : cartItems) {
-                Product product = productRepo.findById(item.getProductId());
-                productRepo.updateStock(item.getProductId(), 
-                    product.getStockQuantity() - item.getQuantity());
-            }
+        processBtn.setDisable(true);
+        FxAsync.deliver(checkoutService.checkoutAsync(cartItems), sale -> {
+            processBtn.setDisable(false);
             
             // Clear cart
             cartItems.clear();
             updateTotal(totalLabel);
             
             AlertUtils.showInfo("Sale Completed", 
-                String.format("Sale #%d completed successfully!\nTotal: $%.2f", saleId, totalAmount));
-            
-        } catch (SQLException e) {
-            AlertUtils.showError("Error", "Failed to process sale: " + e.getMessage());
-            e.printStackTrace();
-        }
+                "Sale #" + sale.getId() + " completed successfully!\nTotal: " + MoneyFormatter.format(sale.getTotalAmount()));
+        }, error -> {
+            processBtn.setDisable(false);
+            if (error instanceof InsufficientStockException) {
+                AlertUtils.showError("Insufficient Stock", error.getMessage());
+            } else {
+                AlertUtils.showError("Error", "Failed to process sale: " + error.getMessage());
+                error.printStackTrace();
+            }
+        });
+    }
+    
+    @Override
+    public void stop() {
+        DatabaseManager.closeConnection();
     }
     
     public static void main(String[] args) {
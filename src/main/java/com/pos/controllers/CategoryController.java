@@ -1,25 +1,29 @@
 package com.pos.controllers;
 
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.EventBus;
 import com.pos.models.Category;
 import com.pos.repository.CategoryRepository;
 import com.pos.utils.AlertUtils;
-import javafx.collections.FXCollections;
+import com.pos.utils.CategoryRows;
+import com.pos.utils.CellValues;
+import com.pos.utils.FxAsync;
+import com.pos.utils.ViewRegistry.Refreshable;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.IOException;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
-public class CategoryController implements Initializable {
+public class CategoryController implements Initializable, Refreshable {
     
     @FXML
     private TableView<Category> categoriesTable;
@@ -46,6 +50,7 @@ public class CategoryController implements Initializable {
     private Button refreshBtn;
     
     private CategoryRepository categoryRepository;
+    private boolean loaded;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -53,7 +58,6 @@ public class CategoryController implements Initializable {
             categoryRepository = new CategoryRepository();
             
             setupTableColumns();
-            loadCategories();
             setupEventHandlers();
             
         } catch (Exception e) {
@@ -62,9 +66,9 @@ public class CategoryController implements Initializable {
     }
     
     private void setupTableColumns() {
-        idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        descriptionColumn.setCellValueFactory(new PropertyValueFactory<>("description"));
+        idColumn.setCellValueFactory(CellValues.of(Category::getId));
+        nameColumn.setCellValueFactory(CellValues.of(Category::getName));
+        descriptionColumn.setCellValueFactory(CellValues.of(Category::getDescription));
     }
     
     private void setupEventHandlers() {
@@ -91,15 +95,16 @@ public class CategoryController implements Initializable {
         });
         
         refreshBtn.setOnAction(e -> loadCategories());
+        
+        // Changes made anywhere patch only the row they touch
+        EventBus.getInstance().subscribe(CategoryChanged.class, Platform::runLater,
+            event -> CategoryRows.apply(categoriesTable.getItems(), event));
     }
     
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryRepository.findAll();
-            categoriesTable.setItems(FXCollections.observableArrayList(categories));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading categories", e);
-        }
+        FxAsync.deliver(categoryRepository.findAllAsync(),
+            categories -> categoriesTable.getItems().setAll(categories),
+            error -> AlertUtils.showException("Error loading categories", error));
     }
     
     private void showCategoryDialog(Category category) {
@@ -110,7 +115,6 @@ public class CategoryController implements Initializable {
             
             CategoryDialogController controller = loader.getController();
             controller.setCategory(category);
-            controller.setCategoryController(this);
             
             Stage stage = new Stage();
             stage.setTitle(category == null ? "Add Category" : "Edit Category");
@@ -124,25 +128,31 @@ public class CategoryController implements Initializable {
     }
     
     private void deleteCategory(Category category) {
-        try {
-            if (categoryRepository.hasProducts(category.getId())) {
+        CompletableFuture<Boolean> deletion = categoryRepository.hasProductsAsync(category.getId())
+            .thenCompose(hasProducts -> hasProducts
+                ? CompletableFuture.<Boolean>completedFuture(null)
+                : categoryRepository.deleteAsync(category.getId()));
+        
+        FxAsync.deliver(deletion, deleted -> {
+            if (deleted == null) {
                 AlertUtils.showWarning("Cannot Delete", 
                     "This category has products associated with it. Please remove or reassign the products first.");
-                return;
-            }
-            
-            if (categoryRepository.delete(category.getId())) {
+            } else if (deleted) {
                 AlertUtils.showInfo("Success", "Category deleted successfully.");
-                loadCategories();
             } else {
                 AlertUtils.showError("Error", "Failed to delete category.");
             }
-        } catch (SQLException e) {
-            AlertUtils.showException("Error deleting category", e);
-        }
+        }, error -> AlertUtils.showException("Error deleting category", error));
     }
     
-    public void refreshCategories() {
-        loadCategories();
+    /**
+     * Loads the table on the first show; change events keep it current from then on.
+     */
+    @Override
+    public void refresh() {
+        if (!loaded) {
+            loaded = true;
+            loadCategories();
+        }
     }
 }
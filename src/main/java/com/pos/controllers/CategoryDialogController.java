@@ -3,14 +3,15 @@ package com.pos.controllers;
 import com.pos.models.Category;
 import com.pos.repository.CategoryRepository;
 import com.pos.utils.AlertUtils;
+import com.pos.utils.FxAsync;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class CategoryDialogController implements Initializable {
     
@@ -27,7 +28,6 @@ public class CategoryDialogController implements Initializable {
     private Button cancelBtn;
     
     private Category category;
-    private CategoryController categoryController;
     private CategoryRepository categoryRepository;
     
     @Override
@@ -54,55 +54,53 @@ public class CategoryDialogController implements Initializable {
         }
     }
     
-    public void setCategoryController(CategoryController categoryController) {
-        this.categoryController = categoryController;
-    }
-    
     private void saveCategory() {
-        try {
-            // Validate input
-            if (nameField.getText().trim().isEmpty()) {
-                AlertUtils.showWarning("Validation Error", "Category name is required.");
+        // Validate input
+        if (nameField.getText().trim().isEmpty()) {
+            AlertUtils.showWarning("Validation Error", "Category name is required.");
+            return;
+        }
+        
+        String name = nameField.getText().trim();
+        String description = descriptionField.getText().trim();
+        
+        // Check if category name already exists (for new categories)
+        CompletableFuture<Category> existing = category == null
+            ? categoryRepository.findByNameAsync(name)
+            : CompletableFuture.completedFuture(null);
+        
+        saveBtn.setDisable(true);
+        FxAsync.deliver(existing, existingCategory -> {
+            if (existingCategory != null) {
+                saveBtn.setDisable(false);
+                AlertUtils.showWarning("Validation Error", "A category with this name already exists.");
                 return;
             }
             
-            // Check if category name already exists (for new categories)
-            if (category == null) {
-                Category existingCategory = categoryRepository.findByName(nameField.getText().trim());
-                if (existingCategory != null) {
-                    AlertUtils.showWarning("Validation Error", "A category with this name already exists.");
-                    return;
-                }
-            }
-            
             // Create or update category
+            CompletableFuture<?> saved;
+            String successMessage;
             if (category == null) {
                 // Create new category
-                Category newCategory = new Category(
-                    nameField.getText().trim(),
-                    descriptionField.getText().trim()
-                );
-                
-                categoryRepository.save(newCategory);
-                AlertUtils.showInfo("Success", "Category created successfully.");
+                saved = categoryRepository.saveAsync(new Category(name, description));
+                successMessage = "Category created successfully.";
             } else {
-                // Update existing category
-                category.setName(nameField.getText().trim());
-                category.setDescription(descriptionField.getText().trim());
-                
-                categoryRepository.update(category);
-                AlertUtils.showInfo("Success", "Category updated successfully.");
+                // Update a copy; the table row changes only through the event once it commits
+                saved = categoryRepository.updateAsync(new Category(category.getId(), name, description));
+                successMessage = "Category updated successfully.";
             }
             
-            if (categoryController != null) {
-                categoryController.refreshCategories();
-            }
-            
-            closeDialog();
-            
-        } catch (SQLException e) {
-            AlertUtils.showException("Error saving category", e);
-        }
+            FxAsync.deliver(saved, result -> {
+                // The categories table picks the change up from the event bus
+                AlertUtils.showInfo("Success", successMessage);
+                closeDialog();
+            }, this::showSaveError);
+        }, this::showSaveError);
+    }
+    
+    private void showSaveError(Throwable error) {
+        saveBtn.setDisable(false);
+        AlertUtils.showException("Error saving category", error);
     }
     
     private void closeDialog() {
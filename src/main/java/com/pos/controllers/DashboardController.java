@@ -1,25 +1,32 @@
 package com.pos.controllers;
 
+import com.pos.events.DomainEvent.SaleRecorded;
+import com.pos.events.EventBus;
+import com.pos.models.Money;
 import com.pos.models.Sale;
-import com.pos.repository.CategoryRepository;
-import com.pos.repository.ProductRepository;
 import com.pos.repository.SaleRepository;
+import com.pos.repository.StatsRepository;
 import com.pos.utils.AlertUtils;
-import javafx.collections.FXCollections;
+import com.pos.utils.CellValues;
+import com.pos.utils.FxAsync;
+import com.pos.utils.MoneyFormatter;
+import com.pos.utils.MoneyTableCell;
+import com.pos.utils.ViewRegistry.Refreshable;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.ResourceBundle;
 
-public class DashboardController implements Initializable {
+public class DashboardController implements Initializable, Refreshable {
+    
+    private static final int RECENT_SALES_LIMIT = 10;
     
     @FXML
     private Label totalProductsLabel;
@@ -40,24 +47,23 @@ public class DashboardController implements Initializable {
     private TableColumn<Sale, Integer> saleIdColumn;
     
     @FXML
-    private TableColumn<Sale, Double> amountColumn;
+    private TableColumn<Sale, Money> amountColumn;
     
     @FXML
     private TableColumn<Sale, String> dateColumn;
     
-    private ProductRepository productRepository;
-    private CategoryRepository categoryRepository;
     private SaleRepository saleRepository;
+    private StatsRepository statsRepository;
+    private boolean recentSalesLoaded;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
-            productRepository = new ProductRepository();
-            categoryRepository = new CategoryRepository();
             saleRepository = new SaleRepository();
+            statsRepository = new StatsRepository();
             
             setupTableColumns();
-            loadDashboardData();
+            EventBus.getInstance().subscribe(SaleRecorded.class, Platform::runLater, this::addRecentSale);
             
         } catch (Exception e) {
             AlertUtils.showException("Dashboard Error", e);
@@ -65,8 +71,9 @@ public class DashboardController implements Initializable {
     }
     
     private void setupTableColumns() {
-        saleIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        amountColumn.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+        saleIdColumn.setCellValueFactory(CellValues.of(Sale::getId));
+        amountColumn.setCellValueFactory(CellValues.of(Sale::getTotalAmount));
+        amountColumn.setCellFactory(MoneyTableCell.forTableColumn());
         dateColumn.setCellValueFactory(cellData -> {
             Sale sale = cellData.getValue();
             return new javafx.beans.property.SimpleStringProperty(
@@ -75,28 +82,39 @@ public class DashboardController implements Initializable {
         });
     }
     
-    private void loadDashboardData() {
-        try {
-            // Load statistics
-            int totalProducts = productRepository.findAll().size();
-            int totalCategories = categoryRepository.findAll().size();
-            int totalSales = saleRepository.getTotalSalesCount();
-            double totalRevenue = saleRepository.getTotalRevenue();
-            
-            totalProductsLabel.setText(String.valueOf(totalProducts));
-            totalCategoriesLabel.setText(String.valueOf(totalCategories));
-            totalSalesLabel.setText(String.valueOf(totalSales));
-            totalRevenueLabel.setText("$" + String.format("%.2f", totalRevenue));
-            
-            // Load recent sales
-            List<Sale> recentSales = saleRepository.findAll();
-            if (recentSales.size() > 10) {
-                recentSales = recentSales.subList(0, 10);
-            }
-            recentSalesTable.setItems(FXCollections.observableArrayList(recentSales));
-            
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading dashboard data", e);
+    /**
+     * The figures are kept in memory and simply read again on every show. Recent sales are
+     * loaded on the first show; each new sale is then added at the top.
+     */
+    @Override
+    public void refresh() {
+        loadStats();
+        if (!recentSalesLoaded) {
+            recentSalesLoaded = true;
+            loadRecentSales();
+        }
+    }
+    
+    private void loadStats() {
+        FxAsync.deliver(statsRepository.getDashboardStatsAsync(), figures -> {
+            totalProductsLabel.setText(String.valueOf(figures.productCount()));
+            totalCategoriesLabel.setText(String.valueOf(figures.categoryCount()));
+            totalSalesLabel.setText(String.valueOf(figures.saleCount()));
+            totalRevenueLabel.setText(MoneyFormatter.format(figures.totalRevenue()));
+        }, error -> AlertUtils.showException("Error loading dashboard data", error));
+    }
+    
+    private void loadRecentSales() {
+        FxAsync.deliver(saleRepository.findRecentAsync(RECENT_SALES_LIMIT),
+            sales -> recentSalesTable.getItems().setAll(sales),
+            error -> AlertUtils.showException("Error loading dashboard data", error));
+    }
+    
+    private void addRecentSale(SaleRecorded event) {
+        ObservableList<Sale> rows = recentSalesTable.getItems();
+        rows.add(0, event.sale());
+        if (rows.size() > RECENT_SALES_LIMIT) {
+            rows.remove(RECENT_SALES_LIMIT, rows.size());
         }
     }
 }
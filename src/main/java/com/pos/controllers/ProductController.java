@@ -1,38 +1,46 @@
 package com.pos.controllers;
 
 import com.pos.models.Category;
+import com.pos.models.Money;
 import com.pos.models.Product;
 import com.pos.repository.CategoryRepository;
 import com.pos.repository.ProductRepository;
+import com.pos.services.ProductImportService;
 import com.pos.utils.AlertUtils;
-import javafx.collections.FXCollections;
+import com.pos.utils.CellValues;
+import com.pos.utils.FxAsync;
+import com.pos.utils.LiveCatalog;
+import com.pos.utils.MoneyTableCell;
+import com.pos.utils.ProductFilter;
+import com.pos.utils.ThumbnailTableCell;
+import com.pos.utils.ViewRegistry.Refreshable;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
 import java.util.ResourceBundle;
 
-public class ProductController implements Initializable {
+public class ProductController implements Initializable, Refreshable {
+    
+    @FXML
+    private TextField searchField;
     
     @FXML
     private TableView<Product> productsTable;
     
     @FXML
-    private TableColumn<Product, ImageView> imageColumn;
+    private TableColumn<Product, String> imageColumn;
     
     @FXML
     private TableColumn<Product, String> nameColumn;
@@ -41,7 +49,7 @@ public class ProductController implements Initializable {
     private TableColumn<Product, String> categoryColumn;
     
     @FXML
-    private TableColumn<Product, Double> priceColumn;
+    private TableColumn<Product, Money> priceColumn;
     
     @FXML
     private TableColumn<Product, Integer> stockColumn;
@@ -55,20 +63,25 @@ public class ProductController implements Initializable {
     @FXML
     private Button deleteProductBtn;
     
+    @FXML
+    private Button importProductsBtn;
+    
     @FXML
     private Button refreshBtn;
     
     private ProductRepository productRepository;
     private CategoryRepository categoryRepository;
+    private ProductImportService importService;
+    private final LiveCatalog catalog = LiveCatalog.getInstance();
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             productRepository = new ProductRepository();
             categoryRepository = new CategoryRepository();
+            importService = new ProductImportService(productRepository, categoryRepository);
             
             setupTableColumns();
-            loadProducts();
             setupEventHandlers();
             
         } catch (Exception e) {
@@ -77,43 +90,14 @@ public class ProductController implements Initializable {
     }
     
     private void setupTableColumns() {
-        imageColumn.setCellValueFactory(cellData -> {
-            Product product = cellData.getValue();
-            ImageView imageView = new ImageView();
-            imageView.setFitWidth(50);
-            imageView.setFitHeight(50);
-            imageView.setPreserveRatio(true);
-            
-            if (product.getImagePath() != null && !product.getImagePath().isEmpty()) {
-                try {
-                    Image image = new Image("file:" + product.getImagePath());
-                    imageView.setImage(image);
-                } catch (Exception e) {
-                    // Use default image or placeholder
-                    imageView.setImage(new Image("/images/placeholder.png"));
-                }
-            }
-            
-            return new javafx.beans.property.SimpleObjectProperty<>(imageView);
-        });
-        
-        nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        categoryColumn.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
-        priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
-        stockColumn.setCellValueFactory(new PropertyValueFactory<>("stockQuantity"));
+        imageColumn.setCellValueFactory(CellValues.of(Product::getImagePath));
+        imageColumn.setCellFactory(ThumbnailTableCell.forTableColumn(50, 50));
         
-        // Format price column
-        priceColumn.setCellFactory(column -> new TableCell<Product, Double>() {
-            @Override
-            protected void updateItem(Double item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText("$" + String.format("%.2f", item));
-                }
-            }
-        });
+        nameColumn.setCellValueFactory(CellValues.of(Product::getName));
+        categoryColumn.setCellValueFactory(CellValues.of(Product::getCategoryName));
+        priceColumn.setCellValueFactory(CellValues.of(Product::getPrice));
+        stockColumn.setCellValueFactory(CellValues.of(Product::getStockQuantity));
+        priceColumn.setCellFactory(MoneyTableCell.forTableColumn());
     }
     
     private void setupEventHandlers() {
@@ -139,16 +123,14 @@ public class ProductController implements Initializable {
             }
         });
         
-        refreshBtn.setOnAction(e -> loadProducts());
-    }
-    
-    private void loadProducts() {
-        try {
-            List<Product> products = productRepository.findAll();
-            productsTable.setItems(FXCollections.observableArrayList(products));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading products", e);
-        }
+        importProductsBtn.setOnAction(e -> importProducts());
+        refreshBtn.setOnAction(e -> catalog.reload());
+        
+        // Searching filters the shared catalog in memory; change events keep the catalog current
+        ProductFilter filter = new ProductFilter(catalog);
+        filter.showIn(productsTable);
+        searchField.textProperty().addListener((obs, old, newVal) -> filter.setText(newVal));
+        searchField.setOnAction(e -> filter.searchNow(searchField.getText()));
     }
     
     private void showProductDialog(Product product) {
@@ -159,7 +141,6 @@ public class ProductController implements Initializable {
             
             ProductDialogController controller = loader.getController();
             controller.setProduct(product);
-            controller.setProductController(this);
             
             Stage stage = new Stage();
             stage.setTitle(product == null ? "Add Product" : "Edit Product");
@@ -172,20 +153,45 @@ public class ProductController implements Initializable {
         }
     }
     
+    private void importProducts() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Products");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File file = fileChooser.showOpenDialog(importProductsBtn.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        
+        String label = importProductsBtn.getText();
+        importProductsBtn.setDisable(true);
+        FxAsync.deliver(importService.importCsvAsync(file.toPath(), progress -> Platform.runLater(() ->
+            importProductsBtn.setText(String.format("Importing %.0f%%", progress.fraction() * 100)))), result -> {
+            importProductsBtn.setText(label);
+            importProductsBtn.setDisable(false);
+            String rejects = result.rejectsFile() == null ? "" : "\nRejected rows were saved to " + result.rejectsFile() + ".";
+            AlertUtils.showInfo("Import Complete", result + "." + rejects);
+        }, error -> {
+            importProductsBtn.setText(label);
+            importProductsBtn.setDisable(false);
+            AlertUtils.showException("Error importing products", error instanceof UncheckedIOException ? error.getCause() : error);
+        });
+    }
+    
     private void deleteProduct(Product product) {
-        try {
-            if (productRepository.delete(product.getId())) {
+        FxAsync.deliver(productRepository.deleteAsync(product.getId()), deleted -> {
+            if (deleted) {
                 AlertUtils.showInfo("Success", "Product deleted successfully.");
-                loadProducts();
             } else {
                 AlertUtils.showError("Error", "Failed to delete product.");
             }
-        } catch (SQLException e) {
-            AlertUtils.showException("Error deleting product", e);
-        }
+        }, error -> AlertUtils.showException("Error deleting product", error));
     }
     
-    public void refreshProducts() {
-        loadProducts();
+    /**
+     * Loads the catalog on the first show; change events keep it current from then on.
+     */
+    @Override
+    public void refresh() {
+        catalog.load();
     }
 }
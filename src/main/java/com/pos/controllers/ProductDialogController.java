@@ -1,10 +1,14 @@
 package com.pos.controllers;
 
 import com.pos.models.Category;
+import com.pos.models.Money;
 import com.pos.models.Product;
 import com.pos.repository.CategoryRepository;
 import com.pos.repository.ProductRepository;
+import com.pos.services.ImageStore;
 import com.pos.utils.AlertUtils;
+import com.pos.utils.FxAsync;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -14,9 +18,8 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class ProductDialogController implements Initializable {
     
@@ -32,6 +35,9 @@ public class ProductDialogController implements Initializable {
     @FXML
     private TextField stockField;
     
+    @FXML
+    private TextField barcodeField;
+    
     @FXML
     private TextField imagePathField;
     
@@ -45,15 +51,16 @@ public class ProductDialogController implements Initializable {
     private Button cancelBtn;
     
     private Product product;
-    private ProductController productController;
     private CategoryRepository categoryRepository;
     private ProductRepository productRepository;
+    private ImageStore imageStore;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             categoryRepository = new CategoryRepository();
             productRepository = new ProductRepository();
+            imageStore = ImageStore.getInstance();
             
             loadCategories();
             setupEventHandlers();
@@ -64,12 +71,10 @@ public class ProductDialogController implements Initializable {
     }
     
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryRepository.findAll();
+        FxAsync.deliver(categoryRepository.findAllAsync(), categories -> {
             categoryCombo.setItems(FXCollections.observableArrayList(categories));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading categories", e);
-        }
+            selectProductCategory();
+        }, error -> AlertUtils.showException("Error loading categories", error));
     }
     
     private void setupEventHandlers() {
@@ -84,20 +89,25 @@ public class ProductDialogController implements Initializable {
             nameField.setText(product.getName());
             priceField.setText(String.valueOf(product.getPrice()));
             stockField.setText(String.valueOf(product.getStockQuantity()));
+            barcodeField.setText(product.getBarcode());
             imagePathField.setText(product.getImagePath());
             
             // Set category
-            for (Category category : categoryCombo.getItems()) {
-                if (category.getId() == product.getCategoryId()) {
-                    categoryCombo.getSelectionModel().select(category);
-                    break;
-                }
-            }
+            selectProductCategory();
         }
     }
     
-    public void setProductController(ProductController productController) {
-        this.productController = productController;
+    // Called again once categories arrive, since they load in the background
+    private void selectProductCategory() {
+        if (product == null) {
+            return;
+        }
+        for (Category category : categoryCombo.getItems()) {
+            if (category.getId() == product.getCategoryId()) {
+                categoryCombo.getSelectionModel().select(category);
+                break;
+            }
+        }
     }
     
     private void browseImage() {
@@ -114,76 +124,89 @@ public class ProductDialogController implements Initializable {
     }
     
     private void saveProduct() {
+        // Validate input
+        if (nameField.getText().trim().isEmpty()) {
+            AlertUtils.showWarning("Validation Error", "Product name is required.");
+            return;
+        }
+        
+        if (categoryCombo.getSelectionModel().getSelectedItem() == null) {
+            AlertUtils.showWarning("Validation Error", "Please select a category.");
+            return;
+        }
+        
+        Money price;
         try {
-            // Validate input
-            if (nameField.getText().trim().isEmpty()) {
-                AlertUtils.showWarning("Validation Error", "Product name is required.");
-                return;
-            }
-            
-            if (categoryCombo.getSelectionModel().getSelectedItem() == null) {
-                AlertUtils.showWarning("Validation Error", "Please select a category.");
-                return;
-            }
-            
-            double price;
-            try {
-                price = Double.parseDouble(priceField.getText());
-                if (price <= 0) {
-                    AlertUtils.showWarning("Validation Error", "Price must be greater than 0.");
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                AlertUtils.showWarning("Validation Error", "Please enter a valid price.");
+            price = Money.parse(priceField.getText());
+            if (!price.isPositive()) {
+                AlertUtils.showWarning("Validation Error", "Price must be greater than 0.");
                 return;
             }
-            
-            int stock;
-            try {
-                stock = Integer.parseInt(stockField.getText());
-                if (stock < 0) {
-                    AlertUtils.showWarning("Validation Error", "Stock quantity cannot be negative.");
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                AlertUtils.showWarning("Validation Error", "Please enter a valid stock quantity.");
+        } catch (NumberFormatException e) {
+            AlertUtils.showWarning("Validation Error", "Please enter a valid price.");
+            return;
+        }
+        
+        int stock;
+        try {
+            stock = Integer.parseInt(stockField.getText());
+            if (stock < 0) {
+                AlertUtils.showWarning("Validation Error", "Stock quantity cannot be negative.");
                 return;
             }
+        } catch (NumberFormatException e) {
+            AlertUtils.showWarning("Validation Error", "Please enter a valid stock quantity.");
+            return;
+        }
+        
+        // The product points at the image store's copy, never at the file that was picked
+        CompletableFuture<String> storedImage = imageStore.storeAsync(imagePathField.getText());
+        
+        // Create or update product
+        CompletableFuture<?> saved;
+        String successMessage;
+        if (product == null) {
+            // Create new product
+            Product newProduct = new Product(
+                nameField.getText().trim(),
+                categoryCombo.getSelectionModel().getSelectedItem().getId(),
+                price,
+                stock,
+                null
+            );
+            newProduct.setBarcode(barcodeField.getText());
             
-            // Create or update product
-            if (product == null) {
-                // Create new product
-                Product newProduct = new Product(
-                    nameField.getText().trim(),
-                    categoryCombo.getSelectionModel().getSelectedItem().getId(),
-                    price,
-                    stock,
-                    imagePathField.getText().trim()
-                );
-                
-                productRepository.save(newProduct);
-                AlertUtils.showInfo("Success", "Product created successfully.");
-            } else {
-                // Update existing product
-                product.setName(nameField.getText().trim());
-                product.setCategoryId(categoryCombo.getSelectionModel().getSelectedItem().getId());
-                product.setPrice(price);
-                product.setStockQuantity(stock);
-                product.setImagePath(imagePathField.getText().trim());
-                
-                productRepository.update(product);
-                AlertUtils.showInfo("Success", "Product updated successfully.");
-            }
-            
-            if (productController != null) {
-                productController.refreshProducts();
-            }
-            
-            closeDialog();
+            saved = storedImage.thenComposeAsync(storedPath -> {
+                newProduct.setImagePath(storedPath);
+                return productRepository.saveAsync(newProduct);
+            }, Platform::runLater);
+            successMessage = "Product created successfully.";
+        } else {
+            // Update a copy; the product being edited is the shared catalog row, left as it was
+            // if the save fails
+            Product edited = new Product(product);
+            edited.setName(nameField.getText().trim());
+            edited.setCategoryId(categoryCombo.getSelectionModel().getSelectedItem().getId());
+            edited.setPrice(price);
+            edited.setStockQuantity(stock);
+            edited.setBarcode(barcodeField.getText());
             
-        } catch (SQLException e) {
-            AlertUtils.showException("Error saving product", e);
+            saved = storedImage.thenComposeAsync(storedPath -> {
+                edited.setImagePath(storedPath);
+                return productRepository.updateAsync(edited);
+            }, Platform::runLater);
+            successMessage = "Product updated successfully.";
         }
+        
+        saveBtn.setDisable(true);
+        FxAsync.deliver(saved, result -> {
+            // The products table picks the change up from the event bus
+            AlertUtils.showInfo("Success", successMessage);
+            closeDialog();
+        }, error -> {
+            saveBtn.setDisable(false);
+            AlertUtils.showException("Error saving product", error);
+        });
     }
     
     private void closeDialog() {
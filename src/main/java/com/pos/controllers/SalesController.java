@@ -1,27 +1,37 @@
 package com.pos.controllers;
 
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.EventBus;
 import com.pos.models.Category;
+import com.pos.models.Money;
 import com.pos.models.Product;
-import com.pos.models.Sale;
 import com.pos.models.SaleItem;
 import com.pos.repository.CategoryRepository;
+import com.pos.repository.InsufficientStockException;
 import com.pos.repository.ProductRepository;
-import com.pos.repository.SaleRepository;
+import com.pos.services.CheckoutService;
 import com.pos.utils.AlertUtils;
+import com.pos.utils.CellValues;
+import com.pos.utils.FxAsync;
+import com.pos.utils.LiveCatalog;
+import com.pos.utils.MoneyFormatter;
+import com.pos.utils.MoneyTableCell;
+import com.pos.utils.ProductFilter;
+import com.pos.utils.ViewRegistry.Refreshable;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.net.URL;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.ResourceBundle;
 
-public class SalesController implements Initializable {
+public class SalesController implements Initializable, Refreshable {
+    
+    @FXML
+    private TextField scanField;
     
     @FXML
     private TextField searchField;
@@ -29,6 +39,15 @@ public class SalesController implements Initializable {
     @FXML
     private ComboBox<Category> categoryFilter;
     
+    @FXML
+    private TextField minPriceField;
+    
+    @FXML
+    private TextField maxPriceField;
+    
+    @FXML
+    private CheckBox inStockOnlyCheck;
+    
     @FXML
     private TableView<Product> productsTable;
     
@@ -39,7 +58,7 @@ public class SalesController implements Initializable {
     private TableColumn<Product, String> productCategoryColumn;
     
     @FXML
-    private TableColumn<Product, Double> productPriceColumn;
+    private TableColumn<Product, Money> productPriceColumn;
     
     @FXML
     private TableColumn<Product, Integer> productStockColumn;
@@ -57,10 +76,10 @@ public class SalesController implements Initializable {
     private TableColumn<SaleItem, Integer> cartQuantityColumn;
     
     @FXML
-    private TableColumn<SaleItem, Double> cartPriceColumn;
+    private TableColumn<SaleItem, Money> cartPriceColumn;
     
     @FXML
-    private TableColumn<SaleItem, Double> cartSubtotalColumn;
+    private TableColumn<SaleItem, Money> cartSubtotalColumn;
     
     @FXML
     private TableColumn<SaleItem, Button> removeFromCartColumn;
@@ -76,21 +95,22 @@ public class SalesController implements Initializable {
     
     private ProductRepository productRepository;
     private CategoryRepository categoryRepository;
-    private SaleRepository saleRepository;
+    private CheckoutService checkoutService;
     private ObservableList<SaleItem> cartItems;
+    private final LiveCatalog catalog = LiveCatalog.getInstance();
+    private ProductFilter productFilter;
+    private boolean loaded;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         try {
             productRepository = new ProductRepository();
             categoryRepository = new CategoryRepository();
-            saleRepository = new SaleRepository();
+            checkoutService = new CheckoutService();
             
             cartItems = FXCollections.observableArrayList();
             
             setupTableColumns();
-            loadProducts();
-            loadCategories();
             setupEventHandlers();
             
         } catch (Exception e) {
@@ -100,23 +120,11 @@ public class SalesController implements Initializable {
     
     private void setupTableColumns() {
         // Products table
-        productNameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
-        productCategoryColumn.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
-        productPriceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
-        productStockColumn.setCellValueFactory(new PropertyValueFactory<>("stockQuantity"));
-        
-        // Format price column
-        productPriceColumn.setCellFactory(column -> new TableCell<Product, Double>() {
-            @Override
-            protected void updateItem(Double item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText("$" + String.format("%.2f", item));
-                }
-            }
-        });
+        productNameColumn.setCellValueFactory(CellValues.of(Product::getName));
+        productCategoryColumn.setCellValueFactory(CellValues.of(Product::getCategoryName));
+        productPriceColumn.setCellValueFactory(CellValues.of(Product::getPrice));
+        productStockColumn.setCellValueFactory(CellValues.of(Product::getStockQuantity));
+        productPriceColumn.setCellFactory(MoneyTableCell.forTableColumn());
         
         // Add to cart button column
         addToCartColumn.setCellFactory(column -> new TableCell<Product, Button>() {
@@ -136,35 +144,12 @@ public class SalesController implements Initializable {
         });
         
         // Cart table
-        cartProductColumn.setCellValueFactory(new PropertyValueFactory<>("productName"));
-        cartQuantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        cartPriceColumn.setCellValueFactory(new PropertyValueFactory<>("unitPrice"));
-        cartSubtotalColumn.setCellValueFactory(new PropertyValueFactory<>("subtotal"));
-        
-        // Format cart price columns
-        cartPriceColumn.setCellFactory(column -> new TableCell<SaleItem, Double>() {
-            @Override
-            protected void updateItem(Double item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText("$" + String.format("%.2f", item));
-                }
-            }
-        });
-        
-        cartSubtotalColumn.setCellFactory(column -> new TableCell<SaleItem, Double>() {
-            @Override
-            protected void updateItem(Double item, boolean empty) {
-                super.updateItem(item, empty);
-                if (empty || item == null) {
-                    setText(null);
-                } else {
-                    setText("$" + String.format("%.2f", item));
-                }
-            }
-        });
+        cartProductColumn.setCellValueFactory(CellValues.of(SaleItem::getProductName));
+        cartQuantityColumn.setCellValueFactory(CellValues.observe(SaleItem::quantityProperty));
+        cartPriceColumn.setCellValueFactory(CellValues.of(SaleItem::getUnitPrice));
+        cartSubtotalColumn.setCellValueFactory(CellValues.observe(SaleItem::subtotalProperty));
+        cartPriceColumn.setCellFactory(MoneyTableCell.forTableColumn());
+        cartSubtotalColumn.setCellFactory(MoneyTableCell.forTableColumn());
         
         // Remove from cart button column
         removeFromCartColumn.setCellFactory(column -> new TableCell<SaleItem, Button>() {
@@ -188,61 +173,81 @@ public class SalesController implements Initializable {
     
     private void setupEventHandlers() {
         searchBtn.setOnAction(e -> searchProducts());
+        scanField.setOnAction(e -> scanBarcode());
         processSaleBtn.setOnAction(e -> processSale());
         
-        // Search on Enter key
+        // Search, category, price range and stock filters all apply together, in memory over
+        // the shared catalog
+        productFilter = new ProductFilter(catalog);
+        productFilter.showIn(productsTable);
+        searchField.textProperty().addListener((obs, old, newVal) -> productFilter.setText(newVal));
         searchField.setOnAction(e -> searchProducts());
+        categoryFilter.setOnAction(e -> {
+            Category selected = categoryFilter.getValue();
+            productFilter.setCategoryId(selected == null ? 0 : selected.getId());
+        });
+        minPriceField.textProperty().addListener((obs, old, newVal) -> applyPriceRange());
+        maxPriceField.textProperty().addListener((obs, old, newVal) -> applyPriceRange());
+        inStockOnlyCheck.selectedProperty().addListener((obs, old, selected) -> productFilter.setInStockOnly(selected));
         
-        // Filter by category
-        categoryFilter.setOnAction(e -> filterByCategory());
+        // Category choices change with category edits made elsewhere
+        EventBus.getInstance().subscribe(CategoryChanged.class, Platform::runLater, event -> loadCategories());
     }
     
-    private void loadProducts() {
-        try {
-            List<Product> products = productRepository.findAll();
-            productsTable.setItems(FXCollections.observableArrayList(products));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading products", e);
+    /**
+     * Called each time the screen is shown. The catalog and categories are loaded on the first
+     * show only; change events keep them current from then on. The cart is kept.
+     */
+    @Override
+    public void refresh() {
+        catalog.load();
+        if (!loaded) {
+            loaded = true;
+            loadCategories();
         }
+        updateTotal();
+        Platform.runLater(scanField::requestFocus);
     }
     
+    // Reloaded whenever categories change, keeping the chosen category if it still exists
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryRepository.findAll();
-            categoryFilter.setItems(FXCollections.observableArrayList(categories));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error loading categories", e);
-        }
+        FxAsync.deliver(categoryRepository.findAllAsync(), categories -> {
+            int selected = categories.indexOf(categoryFilter.getValue());
+            categoryFilter.getItems().setAll(categories);
+            categoryFilter.setValue(selected < 0 ? null : categories.get(selected));
+        }, error -> AlertUtils.showException("Error loading categories", error));
     }
     
     private void searchProducts() {
-        String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            loadProducts();
-            return;
-        }
-        
-        try {
-            List<Product> products = productRepository.searchByName(searchTerm);
-            productsTable.setItems(FXCollections.observableArrayList(products));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error searching products", e);
-        }
+        productFilter.searchNow(searchField.getText());
+    }
+    
+    private void applyPriceRange() {
+        productFilter.setPriceRange(ProductFilter.priceBound(minPriceField.getText()),
+            ProductFilter.priceBound(maxPriceField.getText()));
     }
     
-    private void filterByCategory() {
-        Category selectedCategory = categoryFilter.getSelectionModel().getSelectedItem();
-        if (selectedCategory == null) {
-            loadProducts();
+    // Scanners type the code followed by Enter. A cached catalog answers in memory; only a
+    // miss goes to the database
+    private void scanBarcode() {
+        String barcode = scanField.getText().trim();
+        scanField.clear();
+        if (barcode.isEmpty()) {
             return;
         }
         
-        try {
-            List<Product> products = productRepository.findByCategory(selectedCategory.getId());
-            productsTable.setItems(FXCollections.observableArrayList(products));
-        } catch (SQLException e) {
-            AlertUtils.showException("Error filtering products", e);
+        Product product = productRepository.findByBarcodeCached(barcode);
+        if (product != null) {
+            addToCart(product);
+            return;
         }
+        FxAsync.deliver(productRepository.findByBarcodeAsync(barcode), found -> {
+            if (found != null) {
+                addToCart(found);
+            } else {
+                AlertUtils.showWarning("Unknown Barcode", "No product has barcode " + barcode + ".");
+            }
+        }, error -> AlertUtils.showException("Error looking up barcode", error));
     }
     
     private void addToCart(Product product) {
@@ -276,8 +281,11 @@ public class SalesController implements Initializable {
     }
     
     private void updateTotal() {
-        double total = cartItems.stream().mapToDouble(SaleItem::getSubtotal).sum();
-        totalLabel.setText("$" + String.format("%.2f", total));
+        Money total = Money.ZERO;
+        for (SaleItem item : cartItems) {
+            total = total.plus(item.getSubtotal());
+        }
+        totalLabel.setText(MoneyFormatter.format(total));
     }
     
     private void processSale() {
@@ -286,50 +294,22 @@ public class SalesController implements Initializable {
             return;
         }
         
-        try {
-            // Validate stock
-            for (SaleItem item : cartItems) {
-                Product product = productRepository.findById(item.getProductId());
-                if (product == null) {
-                    AlertUtils.showError("Product Not Found", "One or more products in cart no longer exist.");
-                    return;
-                }
-                if (product.getStockQuantity() < item.getQuantity()) {
-                    AlertUtils.showError("Insufficient Stock", 
-                        "Insufficient stock for " + item.getProductName() + 
-                        ". Available: " + product.getStockQuantity() + ", Required: " + item.getQuantity());
-                    return;
-                }
-            }
-            
-            // Create sale
-            double totalAmount = cartItems.stream().mapToDouble(SaleItem::getSubtotal).sum();
-            Sale sale = new Sale(totalAmount);
-            int saleId = saleRepository.save(sale);
-            
-            // Save sale items
-            List<SaleItem> itemsToSave = new ArrayList<>();
-            for (SaleItem item : cartItems) {
-                item.setSaleId(saleId);
-                itemsToSave.add(item);
-            }
-            saleRepository.saveSaleItems(saleId, itemsToSave);
-            
-            // Update stock
-            for (SaleItem item : cartItems) {
-                Product product = productRepository.findById(item.getProductId());
-                int newStock = product.getStockQuantity() - item.getQuantity();
-                productRepository.updateStock(item.getProductId(), newStock);
-            }
+        processSaleBtn.setDisable(true);
+        FxAsync.deliver(checkoutService.checkoutAsync(cartItems), sale -> {
+            processSaleBtn.setDisable(false);
             
             // Clear cart
             cartItems.clear();
             updateTotal();
             
-            AlertUtils.showInfo("Sale Processed", "Sale completed successfully. Total: $" + String.format("%.2f", totalAmount));
-            
-        } catch (SQLException e) {
-            AlertUtils.showException("Error processing sale", e);
-        }
+            AlertUtils.showInfo("Sale Processed", "Sale completed successfully. Total: " + MoneyFormatter.format(sale.getTotalAmount()));
+        }, error -> {
+            processSaleBtn.setDisable(false);
+            if (error instanceof InsufficientStockException) {
+                AlertUtils.showError("Insufficient Stock", error.getMessage());
+            } else {
+                AlertUtils.showException("Error processing sale", error);
+            }
+        });
     }
 }
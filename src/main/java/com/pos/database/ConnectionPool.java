@@ -0,0 +1,269 @@
+package com.pos.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of physical JDBC connections. Callers receive a lease that looks like a
+ * plain {@link Connection}; closing the lease hands the physical connection back to the pool.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private int totalConnections;
+    private volatile boolean closed;
+
+    private final AtomicLong leasesGranted = new AtomicLong();
+    private final AtomicLong connectionsCreated = new AtomicLong();
+    private final AtomicLong connectionsEvicted = new AtomicLong();
+    private final AtomicLong connectionsInvalidated = new AtomicLong();
+    private final AtomicLong waitTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String name, ConnectionFactory factory, int maxSize, int minIdle,
+                          long maxWaitMillis, long idleTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.name = name;
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = Math.max(1000, idleTimeoutMillis / 4);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pos-db-" + name + "-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool '" + name + "' is closed");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                waitTimeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + maxWaitMillis
+                    + " ms waiting for a connection from pool '" + name + "'");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = pollIdle()) != null) {
+                if (isHealthy(pooled)) {
+                    return lease(pooled);
+                }
+                connectionsInvalidated.incrementAndGet();
+                discard(pooled);
+            }
+            return lease(create());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolMetrics getMetrics() {
+        int total;
+        int idleCount;
+        synchronized (this) {
+            total = totalConnections;
+            idleCount = idle.size();
+        }
+        long leases = leasesGranted.get();
+        double averageWait = leases == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / leases;
+        return new PoolMetrics(name, maxSize, total, idleCount, maxSize - permits.availablePermits(),
+            leases, connectionsCreated.get(), connectionsEvicted.get(), connectionsInvalidated.get(),
+            waitTimeouts.get(), averageWait);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(this::discard);
+    }
+
+    private synchronized PooledConnection pollIdle() {
+        // Most recently returned first, so the evictor trims the cold end of the deque
+        return idle.pollFirst();
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = factory.open();
+        synchronized (this) {
+            totalConnections++;
+        }
+        connectionsCreated.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private boolean isHealthy(PooledConnection pooled) {
+        long sinceUse = System.currentTimeMillis() - pooled.lastUsedMillis;
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            return sinceUse < validationIntervalMillis || pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lease(PooledConnection pooled) {
+        leasesGranted.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new Lease(pooled));
+    }
+
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed) {
+                discard(pooled);
+                return;
+            }
+            try {
+                // Never hand out a connection with a half-finished transaction
+                if (!pooled.physical.getAutoCommit()) {
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                connectionsInvalidated.incrementAndGet();
+                discard(pooled);
+                return;
+            }
+            pooled.lastUsedMillis = System.currentTimeMillis();
+            synchronized (this) {
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        synchronized (this) {
+            totalConnections--;
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (this) {
+            Iterator<PooledConnection> coldest = idle.descendingIterator();
+            while (coldest.hasNext() && totalConnections - expired.size() > minIdle) {
+                PooledConnection pooled = coldest.next();
+                if (pooled.lastUsedMillis > cutoff) {
+                    break;
+                }
+                coldest.remove();
+                expired.add(pooled);
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            connectionsEvicted.incrementAndGet();
+            discard(pooled);
+        }
+    }
+
+    private static final class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Lease[" + name + "] of " + pooled.physical;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection lease has already been returned to pool '" + name + "'");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
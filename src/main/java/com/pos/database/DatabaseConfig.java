@@ -0,0 +1,158 @@
+package com.pos.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Database settings read from {@code pos-db.properties} in the working directory, or from the
+ * file named by the {@code pos.db.config} system property. Every key is optional:
+ *
+ * <pre>
+ * db.url=jdbc:sqlite:pos_system.db
+ * # durable | balanced | throughput
+ * db.profile=balanced
+ * # overrides for individual profile values
+ * db.journalMode=WAL
+ * db.synchronous=NORMAL
+ * db.mmapSize=67108864
+ * db.cacheSize=-16000
+ * db.tempStore=MEMORY
+ * db.busyTimeoutMillis=5000
+ * db.checkpointIntervalSeconds=60
+ * db.readPoolSize=4
+ * # run async repository calls on virtual threads
+ * db.async.virtualThreads=false
+ * # largest catalog kept in memory; 0 disables the cache
+ * db.catalog.maxEntries=50000
+ * </pre>
+ *
+ * Comments must be on lines of their own: {@link Properties} keeps a trailing {@code #...}
+ * as part of the value.
+ */
+public class DatabaseConfig {
+    public static final String CONFIG_PROPERTY = "pos.db.config";
+    public static final String DEFAULT_CONFIG_FILE = "pos-db.properties";
+    
+    private static final Set<String> JOURNAL_MODES = Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS_MODES = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+    
+    private final String url;
+    private final PerformanceProfile profile;
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int checkpointIntervalSeconds;
+    private final int readPoolSize;
+    private final boolean asyncVirtualThreads;
+    private final int catalogMaxEntries;
+    
+    private DatabaseConfig(Properties props) {
+        this.url = props.getProperty("db.url", "jdbc:sqlite:pos_system.db").trim();
+        this.profile = PerformanceProfile.fromName(props.getProperty("db.profile", PerformanceProfile.BALANCED.name()));
+        this.journalMode = choice(props, "db.journalMode", profile.getJournalMode(), JOURNAL_MODES);
+        this.synchronous = choice(props, "db.synchronous", profile.getSynchronous(), SYNCHRONOUS_MODES);
+        this.mmapSize = Long.parseLong(props.getProperty("db.mmapSize", String.valueOf(profile.getMmapSize())).trim());
+        this.cacheSize = intValue(props, "db.cacheSize", profile.getCacheSize());
+        this.tempStore = choice(props, "db.tempStore", profile.getTempStore(), TEMP_STORES);
+        this.busyTimeoutMillis = intValue(props, "db.busyTimeoutMillis", profile.getBusyTimeoutMillis());
+        this.checkpointIntervalSeconds = intValue(props, "db.checkpointIntervalSeconds", profile.getCheckpointIntervalSeconds());
+        this.readPoolSize = Math.max(1, intValue(props, "db.readPoolSize", 4));
+        this.asyncVirtualThreads = Boolean.parseBoolean(props.getProperty("db.async.virtualThreads", "false").trim());
+        this.catalogMaxEntries = Math.max(0, intValue(props, "db.catalog.maxEntries", 50_000));
+    }
+    
+    public static DatabaseConfig load() {
+        Path path = Paths.get(System.getProperty(CONFIG_PROPERTY, DEFAULT_CONFIG_FILE));
+        Properties props = new Properties();
+        if (Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                props.load(in);
+            } catch (IOException e) {
+                System.err.println("Error reading database config " + path + ": " + e.getMessage());
+            }
+        }
+        return new DatabaseConfig(props);
+    }
+    
+    private static String choice(Properties props, String key, String defaultValue, Set<String> allowed) {
+        // Values end up inside PRAGMA statements, so only accept known keywords
+        String value = props.getProperty(key, defaultValue).trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(value)) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value + " (expected one of " + allowed + ")");
+        }
+        return value;
+    }
+    
+    private static int intValue(Properties props, String key, int defaultValue) {
+        return Integer.parseInt(props.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public PerformanceProfile getProfile() {
+        return profile;
+    }
+    
+    public String getJournalMode() {
+        return journalMode;
+    }
+    
+    public String getSynchronous() {
+        return synchronous;
+    }
+    
+    public long getMmapSize() {
+        return mmapSize;
+    }
+    
+    public int getCacheSize() {
+        return cacheSize;
+    }
+    
+    public String getTempStore() {
+        return tempStore;
+    }
+    
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+    
+    public int getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+    
+    public int getReadPoolSize() {
+        return readPoolSize;
+    }
+    
+    public boolean isAsyncVirtualThreads() {
+        return asyncVirtualThreads;
+    }
+    
+    public int getCatalogMaxEntries() {
+        return catalogMaxEntries;
+    }
+    
+    public boolean isWal() {
+        return "WAL".equals(journalMode);
+    }
+    
+    @Override
+    public String toString() {
+        return profile.name().toLowerCase(Locale.ROOT) + " [journal_mode=" + journalMode + ", synchronous=" + synchronous
+            + ", mmap_size=" + mmapSize + ", cache_size=" + cacheSize + ", temp_store=" + tempStore
+            + ", busy_timeout=" + busyTimeoutMillis + "]";
+    }
+}
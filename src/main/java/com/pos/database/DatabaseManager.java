@@ -4,75 +4,238 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * SQLite allows a single writer at a time, so all INSERT/UPDATE/DELETE work is funnelled
+ * through one writer thread that owns the only read-write connection. Queries lease
+ * read-only connections from a separate pool and never wait on that thread.
+ */
 public class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:pos_system.db";
-    private static Connection connection;
+    private static final int READ_POOL_MIN_IDLE = 1;
+    private static final long POOL_MAX_WAIT_MILLIS = 5_000;
+    private static final long POOL_IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    private static final long WRITER_SHUTDOWN_TIMEOUT_SECONDS = 10;
+    
+    private static volatile DatabaseConfig config;
+    private static volatile ConnectionPool readPool;
+    private static volatile ConnectionPool writePool;
+    private static volatile ExecutorService writer;
+    private static volatile Thread writerThread;
+    private static WalCheckpointScheduler checkpointScheduler;
+    
+    // Only touched from the writer thread
+    private static Connection writerConnection;
+    private static final List<Runnable> commitActions = new ArrayList<>();
     
     public static void initialize() throws SQLException {
-        connection = DriverManager.getConnection(DB_URL);
-        createTables();
-        seedData();
+        write(connection -> {
+            // journal_mode is stored in the database file, so it only needs setting once by the writer
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = " + config.getJournalMode());
+            }
+            new SchemaMigrator(Migrations.all()).migrate(connection);
+            seedData(connection);
+            return null;
+        });
+        
+        synchronized (DatabaseManager.class) {
+            if (checkpointScheduler == null && config.isWal() && config.getCheckpointIntervalSeconds() > 0) {
+                checkpointScheduler = new WalCheckpointScheduler(config.getCheckpointIntervalSeconds());
+            }
+        }
     }
     
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
-        }
-        return connection;
+    public static DatabaseConfig getConfig() {
+        start();
+        return config;
     }
     
-    private static void createTables() throws SQLException {
-        String createCategoriesTable = """
-            CREATE TABLE IF NOT EXISTS categories (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT NOT NULL UNIQUE,
-                description TEXT
-            )
-        """;
-        
-        String createProductsTable = """
-            CREATE TABLE IF NOT EXISTS products (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT NOT NULL,
-                category_id INTEGER NOT NULL,
-                price REAL NOT NULL CHECK(price > 0),
-                stock_quantity INTEGER NOT NULL CHECK(stock_quantity >= 0),
-                image_path TEXT,
-                FOREIGN KEY (category_id) REFERENCES categories(id)
-            )
-        """;
+    /**
+     * Leases a read-only pooled connection. Closing it gives it back to the pool instead of
+     * closing the underlying SQLite handle.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        start();
+        return readPool.getConnection();
+    }
+    
+    /**
+     * Runs the given work on the writer thread and waits for its result. Calls made from
+     * inside a write (e.g. a repository used by a service transaction) run inline on the
+     * same connection.
+     */
+    public static <T> T write(SqlWork<T> work) throws SQLException {
+        if (Thread.currentThread() == writerThread) {
+            return work.execute(writerConnection);
+        }
         
-        String createSalesTable = """
-            CREATE TABLE IF NOT EXISTS sales (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                total_amount REAL NOT NULL,
-                sale_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            )
-        """;
+        start();
+        ExecutorService executor = writer;
+        Future<T> result;
+        try {
+            result = executor.submit(() -> runOnWriter(work));
+        } catch (RejectedExecutionException e) {
+            throw new SQLException("Database is shutting down", e);
+        }
         
-        String createSaleItemsTable = """
-            CREATE TABLE IF NOT EXISTS sale_items (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                sale_id INTEGER NOT NULL,
-                product_id INTEGER NOT NULL,
-                quantity INTEGER NOT NULL CHECK(quantity > 0),
-                unit_price REAL NOT NULL CHECK(unit_price > 0),
-                subtotal REAL NOT NULL CHECK(subtotal > 0),
-                FOREIGN KEY (sale_id) REFERENCES sales(id),
-                FOREIGN KEY (product_id) REFERENCES products(id)
-            )
-        """;
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for database write", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new SQLException("Database write failed", cause);
+        }
+    }
+    
+    /**
+     * Runs the given work as one transaction on the writer thread: committed if it returns,
+     * rolled back if it throws. Nested calls join the enclosing transaction.
+     */
+    public static <T> T transaction(SqlWork<T> work) throws SQLException {
+        return write(connection -> {
+            if (!connection.getAutoCommit()) {
+                return work.execute(connection);
+            }
+            
+            connection.setAutoCommit(false);
+            boolean committed = false;
+            try {
+                T result = work.execute(connection);
+                connection.commit();
+                committed = true;
+                runAfterCommit();
+                return result;
+            } finally {
+                // Whatever was thrown, Errors included: re-enabling auto-commit below would
+                // otherwise commit the half-done work
+                try {
+                    if (!committed) {
+                        commitActions.clear();
+                        connection.rollback();
+                    }
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Runs the action once the current write is durable: straight away in auto-commit mode,
+     * or after the enclosing transaction commits. Dropped if that transaction rolls back.
+     * Must be called from inside {@link #write} or {@link #transaction}.
+     */
+    public static void onCommit(Runnable action) throws SQLException {
+        if (Thread.currentThread() != writerThread) {
+            throw new IllegalStateException("onCommit must be called from inside a database write");
+        }
+        if (writerConnection.getAutoCommit()) {
+            action.run();
+        } else {
+            commitActions.add(action);
+        }
+    }
+    
+    public static List<PoolMetrics> getPoolMetrics() {
+        start();
+        return List.of(writePool.getMetrics(), readPool.getMetrics());
+    }
+    
+    private static void start() {
+        if (writer == null) {
+            synchronized (DatabaseManager.class) {
+                if (writer == null) {
+                    startPools();
+                }
+            }
+        }
+    }
+    
+    private static void startPools() {
+        config = DatabaseConfig.load();
+        System.out.println("Database profile: " + config);
         
+        writePool = new ConnectionPool("write", DatabaseManager::openConnection,
+            1, 1, POOL_MAX_WAIT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS);
+        readPool = new ConnectionPool("read", DatabaseManager::openReadOnly,
+            config.getReadPoolSize(), READ_POOL_MIN_IDLE, POOL_MAX_WAIT_MILLIS, POOL_IDLE_TIMEOUT_MILLIS);
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "pos-db-writer");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+    }
+    
+    private static void runAfterCommit() {
+        List<Runnable> actions = new ArrayList<>(commitActions);
+        commitActions.clear();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("After-commit action failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static <T> T runOnWriter(SqlWork<T> work) throws SQLException {
+        try (Connection connection = writePool.getConnection()) {
+            writerConnection = connection;
+            try {
+                return work.execute(connection);
+            } finally {
+                writerConnection = null;
+            }
+        }
+    }
+    
+    private static Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(config.getUrl());
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + config.getBusyTimeoutMillis());
+            stmt.execute("PRAGMA synchronous = " + config.getSynchronous());
+            stmt.execute("PRAGMA mmap_size = " + config.getMmapSize());
+            stmt.execute("PRAGMA cache_size = " + config.getCacheSize());
+            stmt.execute("PRAGMA temp_store = " + config.getTempStore());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+    
+    private static Connection openReadOnly() throws SQLException {
+        Connection connection = openConnection();
         try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createCategoriesTable);
-            stmt.execute(createProductsTable);
-            stmt.execute(createSalesTable);
-            stmt.execute(createSaleItemsTable);
+            stmt.execute("PRAGMA query_only = ON");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
         }
+        return connection;
     }
     
-    private static void seedData() throws SQLException {
+    private static void seedData(Connection connection) throws SQLException {
         // Check if data already exists
         try (var stmt = connection.createStatement();
              var rs = stmt.executeQuery("SELECT COUNT(*) FROM categories")) {
@@ -93,14 +256,14 @@ public class DatabaseManager {
         
         // Insert sample products
         String insertProducts = """
-            INSERT INTO products (name, category_id, price, stock_quantity, image_path) VALUES
-            ('Laptop Computer', 1, 999.99, 10, 'src/main/resources/images/placeholder.png'),
-            ('Smartphone', 1, 599.99, 25, 'src/main/resources/images/placeholder.png'),
-            ('T-Shirt', 2, 19.99, 50, 'src/main/resources/images/placeholder.png'),
-            ('Jeans', 2, 49.99, 30, 'src/main/resources/images/placeholder.png'),
-            ('Programming Book', 3, 39.99, 15, 'src/main/resources/images/placeholder.png'),
-            ('Coffee', 4, 4.99, 100, 'src/main/resources/images/placeholder.png'),
-            ('Garden Tools Set', 5, 79.99, 8, 'src/main/resources/images/placeholder.png')
+            INSERT INTO products (name, category_id, price_cents, stock_quantity, image_path) VALUES
+            ('Laptop Computer', 1, 99999, 10, 'src/main/resources/images/placeholder.png'),
+            ('Smartphone', 1, 59999, 25, 'src/main/resources/images/placeholder.png'),
+            ('T-Shirt', 2, 1999, 50, 'src/main/resources/images/placeholder.png'),
+            ('Jeans', 2, 4999, 30, 'src/main/resources/images/placeholder.png'),
+            ('Programming Book', 3, 3999, 15, 'src/main/resources/images/placeholder.png'),
+            ('Coffee', 4, 499, 100, 'src/main/resources/images/placeholder.png'),
+            ('Garden Tools Set', 5, 7999, 8, 'src/main/resources/images/placeholder.png')
         """;
         
         try (Statement stmt = connection.createStatement()) {
@@ -109,13 +272,37 @@ public class DatabaseManager {
         }
     }
     
-    public static void closeConnection() {
+    public static synchronized void closeConnection() {
+        if (writer == null) {
+            return;
+        }
+        
+        DbExecutor.shutdown();
+        
+        if (checkpointScheduler != null) {
+            checkpointScheduler.shutdown();
+            checkpointScheduler = null;
+            // Leave a compact database file and an empty WAL behind
+            WalCheckpointScheduler.checkpoint("TRUNCATE");
+        }
+        
+        // Let queued writes finish before the connections go away
+        writer.shutdown();
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (!writer.awaitTermination(WRITER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("Database writer did not finish pending writes before shutdown");
+                writer.shutdownNow();
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.shutdownNow();
         }
+        
+        writePool.close();
+        readPool.close();
+        writer = null;
+        writerThread = null;
+        writePool = null;
+        readPool = null;
     }
 }
@@ -0,0 +1,78 @@
+package com.pos.database;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs repository calls off the JavaFX Application Thread. Uses virtual threads when
+ * {@code db.async.virtualThreads=true}, otherwise a small pool sized to the read pool.
+ * Cancelling a returned future skips the call if it has not started yet and drops its
+ * result if it has.
+ */
+public final class DbExecutor {
+    private static volatile ExecutorService executor;
+    
+    private DbExecutor() {}
+    
+    public static <T> CompletableFuture<T> supply(SqlSupplier<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = getExecutor().submit(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(call.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        return future;
+    }
+    
+    private static ExecutorService getExecutor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (DbExecutor.class) {
+                if (executor == null) {
+                    executor = create(DatabaseManager.getConfig());
+                }
+                current = executor;
+            }
+        }
+        return current;
+    }
+    
+    private static ExecutorService create(DatabaseConfig config) {
+        if (config.isAsyncVirtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("pos-db-async-", 0).factory());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(config.getReadPoolSize(), r -> {
+            Thread thread = new Thread(r, "pos-db-async-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
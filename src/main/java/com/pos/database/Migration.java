@@ -0,0 +1,27 @@
+package com.pos.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public record Migration(int version, String description, Step step) {
+    
+    @FunctionalInterface
+    public interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+    
+    public static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, statements(statements));
+    }
+    
+    public static Step statements(String... statements) {
+        return connection -> {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,233 @@
+package com.pos.database;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered schema history. Never edit a migration that has shipped; append a new one instead.
+ */
+public final class Migrations {
+    
+    private Migrations() {}
+    
+    public static List<Migration> all() {
+        return List.of(
+            Migration.sql(1, "Create base tables",
+                """
+                CREATE TABLE IF NOT EXISTS categories (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL UNIQUE,
+                    description TEXT
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS products (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT NOT NULL,
+                    category_id INTEGER NOT NULL,
+                    price REAL NOT NULL CHECK(price > 0),
+                    stock_quantity INTEGER NOT NULL CHECK(stock_quantity >= 0),
+                    image_path TEXT,
+                    FOREIGN KEY (category_id) REFERENCES categories(id)
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS sales (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    total_amount REAL NOT NULL,
+                    sale_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS sale_items (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    sale_id INTEGER NOT NULL,
+                    product_id INTEGER NOT NULL,
+                    quantity INTEGER NOT NULL CHECK(quantity > 0),
+                    unit_price REAL NOT NULL CHECK(unit_price > 0),
+                    subtotal REAL NOT NULL CHECK(subtotal > 0),
+                    FOREIGN KEY (sale_id) REFERENCES sales(id),
+                    FOREIGN KEY (product_id) REFERENCES products(id)
+                )
+                """),
+            
+            // findAll/search order by name; findByCategory filters on category and orders by name
+            Migration.sql(2, "Index products by name and category",
+                "CREATE INDEX IF NOT EXISTS idx_products_name ON products(name)",
+                "CREATE INDEX IF NOT EXISTS idx_products_category_name ON products(category_id, name)"),
+            
+            // Covering indexes: sale detail and date-range queries are answered from the index alone
+            Migration.sql(3, "Index sales and sale items",
+                "CREATE INDEX IF NOT EXISTS idx_sales_date ON sales(sale_date, id, total_amount)",
+                "CREATE INDEX IF NOT EXISTS idx_sale_items_sale ON sale_items(sale_id, product_id, quantity, unit_price, subtotal)",
+                "CREATE INDEX IF NOT EXISTS idx_sale_items_product ON sale_items(product_id)"),
+            
+            Migration.sql(4, "Collect planner statistics", "ANALYZE"),
+            
+            // Newest-first order for findRecent/findPage; still covers the date-range queries
+            Migration.sql(5, "Index sales newest first",
+                "DROP INDEX IF EXISTS idx_sales_date",
+                "CREATE INDEX IF NOT EXISTS idx_sales_date_desc ON sales(sale_date DESC, id DESC, total_amount)",
+                "ANALYZE sales"),
+            
+            // Full-text index over product names, kept in sync by triggers. External content:
+            // the text lives only in products; prefix indexes make short "lap*" queries cheap.
+            Migration.sql(6, "Add full-text product search",
+                """
+                CREATE VIRTUAL TABLE IF NOT EXISTS products_fts USING fts5(
+                    name,
+                    content = 'products',
+                    content_rowid = 'id',
+                    tokenize = 'unicode61 remove_diacritics 2',
+                    prefix = '1 2 3'
+                )
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS products_fts_insert AFTER INSERT ON products BEGIN
+                    INSERT INTO products_fts (rowid, name) VALUES (new.id, new.name);
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS products_fts_delete AFTER DELETE ON products BEGIN
+                    INSERT INTO products_fts (products_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                END
+                """,
+                """
+                CREATE TRIGGER IF NOT EXISTS products_fts_update AFTER UPDATE OF name ON products BEGIN
+                    INSERT INTO products_fts (products_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                    INSERT INTO products_fts (rowid, name) VALUES (new.id, new.name);
+                END
+                """,
+                "INSERT INTO products_fts (products_fts) VALUES ('rebuild')"),
+            // Barcode/SKU is optional, but no two products may share one
+            Migration.sql(7, "Add product barcode",
+                "ALTER TABLE products ADD COLUMN barcode TEXT",
+                "CREATE UNIQUE INDEX IF NOT EXISTS idx_products_barcode ON products(barcode) WHERE barcode IS NOT NULL"),
+            
+            // Money as INTEGER cents instead of REAL: exact sums, and integer SUM() is cheaper.
+            // SQLite cannot change a column's type in place, so each table is rebuilt under its
+            // old name with the same ids; its indexes and the FTS triggers are recreated.
+            // Amounts under half a cent would round to 0 and fail the new CHECKs, so they are
+            // kept as one cent and reported. AUTOINCREMENT counters are carried over so that
+            // ids of deleted rows are never handed out again.
+            new Migration(8, "Store money as integer cents", connection -> {
+                reportSubCentAmounts(connection);
+                Migration.statements(
+                    """
+                    CREATE TEMP TABLE v8_sequence AS
+                    SELECT name, seq FROM sqlite_sequence WHERE name IN ('products', 'sales', 'sale_items')
+                    """,
+                    """
+                    CREATE TABLE products_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        name TEXT NOT NULL,
+                        category_id INTEGER NOT NULL,
+                        price_cents INTEGER NOT NULL CHECK(price_cents > 0),
+                        stock_quantity INTEGER NOT NULL CHECK(stock_quantity >= 0),
+                        image_path TEXT,
+                        barcode TEXT,
+                        FOREIGN KEY (category_id) REFERENCES categories(id)
+                    )
+                    """,
+                    """
+                    INSERT INTO products_new (id, name, category_id, price_cents, stock_quantity, image_path, barcode)
+                    SELECT id, name, category_id, MAX(1, CAST(ROUND(price * 100) AS INTEGER)), stock_quantity, image_path, barcode
+                    FROM products
+                    """,
+                    "DROP TABLE products",
+                    "ALTER TABLE products_new RENAME TO products",
+                    "CREATE INDEX idx_products_name ON products(name)",
+                    "CREATE INDEX idx_products_category_name ON products(category_id, name)",
+                    "CREATE UNIQUE INDEX idx_products_barcode ON products(barcode) WHERE barcode IS NOT NULL",
+                    """
+                    CREATE TRIGGER products_fts_insert AFTER INSERT ON products BEGIN
+                        INSERT INTO products_fts (rowid, name) VALUES (new.id, new.name);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER products_fts_delete AFTER DELETE ON products BEGIN
+                        INSERT INTO products_fts (products_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                    END
+                    """,
+                    """
+                    CREATE TRIGGER products_fts_update AFTER UPDATE OF name ON products BEGIN
+                        INSERT INTO products_fts (products_fts, rowid, name) VALUES ('delete', old.id, old.name);
+                        INSERT INTO products_fts (rowid, name) VALUES (new.id, new.name);
+                    END
+                    """,
+                    """
+                    CREATE TABLE sales_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        total_amount_cents INTEGER NOT NULL,
+                        sale_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """,
+                    """
+                    INSERT INTO sales_new (id, total_amount_cents, sale_date)
+                    SELECT id, CAST(ROUND(total_amount * 100) AS INTEGER), sale_date FROM sales
+                    """,
+                    "DROP TABLE sales",
+                    "ALTER TABLE sales_new RENAME TO sales",
+                    "CREATE INDEX idx_sales_date_desc ON sales(sale_date DESC, id DESC, total_amount_cents)",
+                    """
+                    CREATE TABLE sale_items_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        sale_id INTEGER NOT NULL,
+                        product_id INTEGER NOT NULL,
+                        quantity INTEGER NOT NULL CHECK(quantity > 0),
+                        unit_price_cents INTEGER NOT NULL CHECK(unit_price_cents > 0),
+                        subtotal_cents INTEGER NOT NULL CHECK(subtotal_cents > 0),
+                        FOREIGN KEY (sale_id) REFERENCES sales(id),
+                        FOREIGN KEY (product_id) REFERENCES products(id)
+                    )
+                    """,
+                    """
+                    INSERT INTO sale_items_new (id, sale_id, product_id, quantity, unit_price_cents, subtotal_cents)
+                    SELECT id, sale_id, product_id, quantity, MAX(1, CAST(ROUND(unit_price * 100) AS INTEGER)),
+                           MAX(1, CAST(ROUND(subtotal * 100) AS INTEGER))
+                    FROM sale_items
+                    """,
+                    "DROP TABLE sale_items",
+                    "ALTER TABLE sale_items_new RENAME TO sale_items",
+                    "CREATE INDEX idx_sale_items_sale ON sale_items(sale_id, product_id, quantity, unit_price_cents, subtotal_cents)",
+                    "CREATE INDEX idx_sale_items_product ON sale_items(product_id)",
+                    """
+                    UPDATE sqlite_sequence
+                    SET seq = MAX(seq, (SELECT o.seq FROM v8_sequence o WHERE o.name = sqlite_sequence.name))
+                    WHERE name IN (SELECT name FROM v8_sequence)
+                    """,
+                    """
+                    INSERT INTO sqlite_sequence (name, seq)
+                    SELECT name, seq FROM v8_sequence o
+                    WHERE NOT EXISTS (SELECT 1 FROM sqlite_sequence s WHERE s.name = o.name)
+                    """,
+                    "DROP TABLE v8_sequence",
+                    "ANALYZE")
+                    .apply(connection);
+            })
+        );
+    }
+    
+    private static void reportSubCentAmounts(Connection connection) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                 SELECT 'product ' || id FROM products WHERE ROUND(price * 100) < 1
+                 UNION ALL
+                 SELECT 'sale item ' || id FROM sale_items WHERE ROUND(unit_price * 100) < 1 OR ROUND(subtotal * 100) < 1
+                 """)) {
+            while (rs.next()) {
+                rows.add(rs.getString(1));
+            }
+        }
+        if (!rows.isEmpty()) {
+            System.err.println("Amounts below half a cent were stored as 0.01 for " + rows.size()
+                + " rows: " + String.join(", ", rows.subList(0, Math.min(rows.size(), 50)))
+                + (rows.size() > 50 ? ", ..." : ""));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pos.database;
+
+/**
+ * Named bundles of SQLite pragmas. Individual values can still be overridden in the
+ * external config file (see {@link DatabaseConfig}).
+ */
+public enum PerformanceProfile {
+    // fsync on every commit; survives power loss at the cost of commit latency
+    DURABLE("WAL", "FULL", 0L, -2_000, "DEFAULT", 10_000, 30),
+    // WAL + NORMAL only risks the last commits on power loss, never corruption
+    BALANCED("WAL", "NORMAL", 64L * 1024 * 1024, -16_000, "MEMORY", 5_000, 60),
+    // No fsync at all; for demo tills and bulk loads where speed beats durability
+    THROUGHPUT("WAL", "OFF", 256L * 1024 * 1024, -64_000, "MEMORY", 5_000, 300);
+    
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int checkpointIntervalSeconds;
+    
+    PerformanceProfile(String journalMode, String synchronous, long mmapSize, int cacheSize,
+                       String tempStore, int busyTimeoutMillis, int checkpointIntervalSeconds) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.checkpointIntervalSeconds = checkpointIntervalSeconds;
+    }
+    
+    public String getJournalMode() {
+        return journalMode;
+    }
+    
+    public String getSynchronous() {
+        return synchronous;
+    }
+    
+    public long getMmapSize() {
+        return mmapSize;
+    }
+    
+    public int getCacheSize() {
+        return cacheSize;
+    }
+    
+    public String getTempStore() {
+        return tempStore;
+    }
+    
+    public int getBusyTimeoutMillis() {
+        return busyTimeoutMillis;
+    }
+    
+    public int getCheckpointIntervalSeconds() {
+        return checkpointIntervalSeconds;
+    }
+    
+    public static PerformanceProfile fromName(String name) {
+        for (PerformanceProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown database profile: " + name);
+    }
+}
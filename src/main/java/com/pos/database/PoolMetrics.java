@@ -0,0 +1,23 @@
+package com.pos.database;
+
+public record PoolMetrics(
+    String poolName,
+    int maxSize,
+    int totalConnections,
+    int idleConnections,
+    int activeLeases,
+    long leasesGranted,
+    long connectionsCreated,
+    long connectionsEvicted,
+    long connectionsInvalidated,
+    long waitTimeouts,
+    double averageWaitMillis
+) {
+    @Override
+    public String toString() {
+        return String.format(
+            "%s: %d/%d open (%d idle, %d leased), %d leases, %d created, %d evicted, %d invalid, %d timeouts, avg wait %.3f ms",
+            poolName, totalConnections, maxSize, idleConnections, activeLeases, leasesGranted,
+            connectionsCreated, connectionsEvicted, connectionsInvalidated, waitTimeouts, averageWaitMillis);
+    }
+}
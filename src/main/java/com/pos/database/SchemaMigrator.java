@@ -0,0 +1,84 @@
+package com.pos.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies ordered migrations that have not yet been recorded in {@code schema_version}.
+ * Each migration runs in its own transaction together with its version row, so a store
+ * is never left half-migrated.
+ */
+public class SchemaMigrator {
+    private final List<Migration> migrations;
+    
+    public SchemaMigrator(List<Migration> migrations) {
+        Set<Integer> versions = new HashSet<>();
+        for (Migration migration : migrations) {
+            if (!versions.add(migration.version())) {
+                throw new IllegalStateException("Duplicate migration version " + migration.version());
+            }
+        }
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::version));
+    }
+    
+    public int migrate(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+        
+        int current = getCurrentVersion(connection);
+        int applied = 0;
+        for (Migration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            apply(connection, migration);
+            applied++;
+        }
+        return applied;
+    }
+    
+    public static int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            migration.step().apply(connection);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                stmt.setInt(1, migration.version());
+                stmt.setString(2, migration.description());
+                stmt.executeUpdate();
+            }
+            connection.commit();
+            System.out.println("Applied schema migration V" + migration.version() + ": " + migration.description());
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw new SQLException("Schema migration V" + migration.version() + " (" + migration.description()
+                + ") failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.pos.database;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface SqlSupplier<T> {
+    T get() throws SQLException;
+}
@@ -0,0 +1,9 @@
+package com.pos.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface SqlWork<T> {
+    T execute(Connection connection) throws SQLException;
+}
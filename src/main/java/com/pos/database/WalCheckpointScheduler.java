@@ -0,0 +1,47 @@
+package com.pos.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically folds the WAL back into the main database file so it does not grow without
+ * bound between the automatic checkpoints SQLite runs on commit. Checkpoints are queued on
+ * the writer thread, so they never race a checkout.
+ */
+class WalCheckpointScheduler {
+    private final ScheduledExecutorService scheduler;
+    
+    WalCheckpointScheduler(int intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pos-db-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> checkpoint("PASSIVE"),
+            intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+    
+    static void checkpoint(String mode) {
+        try {
+            DatabaseManager.write(conn -> {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+                    if (rs.next() && rs.getInt(1) != 0) {
+                        System.err.println("WAL checkpoint (" + mode + ") was blocked by an active reader");
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error running WAL checkpoint: " + e.getMessage());
+        }
+    }
+}
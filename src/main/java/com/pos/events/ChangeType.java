@@ -0,0 +1,7 @@
+package com.pos.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
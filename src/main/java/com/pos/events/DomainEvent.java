@@ -0,0 +1,39 @@
+package com.pos.events;
+
+import com.pos.models.Category;
+import com.pos.models.Product;
+import com.pos.models.Sale;
+
+/**
+ * A committed change to the data, published on the {@link EventBus} by the write that made it.
+ * Entities carried by events are fresh copies read back after the write, but every listener
+ * receives the same instance: copy one before modifying it.
+ */
+public sealed interface DomainEvent {
+    
+    /**
+     * A product was created, edited or deleted. {@code product} is null for deletions.
+     */
+    record ProductChanged(ChangeType type, int productId, Product product) implements DomainEvent {}
+    
+    /**
+     * Too many products changed at once to describe one by one, e.g. by a CSV import.
+     * Listeners reload whatever products they show.
+     */
+    record ProductsReloaded(int changedCount) implements DomainEvent {}
+    
+    /**
+     * A product's stock level changed, by a sale or a stock adjustment.
+     */
+    record StockChanged(int productId, int stockQuantity) implements DomainEvent {}
+    
+    /**
+     * A category was created, edited or deleted. {@code category} is null for deletions.
+     */
+    record CategoryChanged(ChangeType type, int categoryId, Category category) implements DomainEvent {}
+    
+    /**
+     * A sale was booked, together with its line items and stock decrements.
+     */
+    record SaleRecorded(Sale sale) implements DomainEvent {}
+}
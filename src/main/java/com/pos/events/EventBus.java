@@ -0,0 +1,84 @@
+package com.pos.events;
+
+import com.pos.database.DatabaseManager;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe for {@link DomainEvent}s. The repositories publish from their
+ * write paths once the change commits, so listeners never see a change that was rolled back.
+ * Open views subscribe with {@code Platform::runLater} as executor and patch the rows an event
+ * is about instead of reloading their tables.
+ *
+ * <p>Events reach each listener in the order they were published.
+ */
+public final class EventBus {
+    private static final EventBus INSTANCE = new EventBus();
+    
+    private final List<Listener<?>> listeners = new CopyOnWriteArrayList<>();
+    
+    private EventBus() {}
+    
+    public static EventBus getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Delivers events of the given type to the listener through the executor.
+     */
+    public <E extends DomainEvent> Subscription subscribe(Class<E> type, Executor executor, Consumer<? super E> listener) {
+        Listener<E> subscribed = new Listener<>(type, executor, listener);
+        listeners.add(subscribed);
+        return () -> listeners.remove(subscribed);
+    }
+    
+    public void publish(DomainEvent event) {
+        for (Listener<?> listener : listeners) {
+            listener.offer(event);
+        }
+    }
+    
+    /**
+     * Publishes the event once the current write commits; dropped if it rolls back. Must be
+     * called from inside {@link DatabaseManager#write} or {@link DatabaseManager#transaction}.
+     */
+    public void publishOnCommit(DomainEvent event) throws SQLException {
+        DatabaseManager.onCommit(() -> publish(event));
+    }
+    
+    public interface Subscription {
+        void cancel();
+    }
+    
+    private static final class Listener<E extends DomainEvent> {
+        private final Class<E> type;
+        private final Executor executor;
+        private final Consumer<? super E> consumer;
+        
+        private Listener(Class<E> type, Executor executor, Consumer<? super E> consumer) {
+            this.type = type;
+            this.executor = executor;
+            this.consumer = consumer;
+        }
+        
+        private void offer(DomainEvent event) {
+            if (!type.isInstance(event)) {
+                return;
+            }
+            E typed = type.cast(event);
+            executor.execute(() -> {
+                try {
+                    consumer.accept(typed);
+                } catch (RuntimeException e) {
+                    // One broken view must not stop the others, or the write that published
+                    System.err.println("Event listener failed on " + event + ": " + e);
+                    e.printStackTrace();
+                }
+            });
+        }
+    }
+}
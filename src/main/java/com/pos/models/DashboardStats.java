@@ -0,0 +1,9 @@
+package com.pos.models;
+
+public record DashboardStats(
+    long productCount,
+    long categoryCount,
+    long saleCount,
+    Money totalRevenue
+) {
+}
@@ -0,0 +1,70 @@
+package com.pos.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money in integer cents. All arithmetic is exact {@code long} arithmetic, so
+ * totals never pick up the rounding drift of binary floating point. Amounts enter from text
+ * through {@link #parse(String)} and leave through {@link #toString()}.
+ */
+public record Money(long cents) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+    
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+    
+    /**
+     * Parses a decimal amount such as {@code 12}, {@code 12.5} or {@code -0.99}.
+     *
+     * @throws NumberFormatException if the text is not a number or has more than two decimals
+     */
+    public static Money parse(String text) {
+        try {
+            BigDecimal amount = new BigDecimal(text.trim()).setScale(2, RoundingMode.UNNECESSARY);
+            return ofCents(amount.unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Not an amount in cents: " + text);
+        }
+    }
+    
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+    
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+    
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+    
+    public boolean isPositive() {
+        return cents > 0;
+    }
+    
+    public boolean isZero() {
+        return cents == 0;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+    
+    /**
+     * Plain decimal with two places, e.g. {@code 12.50}; no currency symbol.
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
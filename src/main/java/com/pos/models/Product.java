@@ -5,13 +5,14 @@ public class Product {
     private String name;
     private int categoryId;
     private String categoryName;
-    private double price;
+    private Money price;
     private int stockQuantity;
     private String imagePath;
+    private String barcode;
     
     public Product() {}
     
-    public Product(String name, int categoryId, double price, int stockQuantity, String imagePath) {
+    public Product(String name, int categoryId, Money price, int stockQuantity, String imagePath) {
         this.name = name;
         this.categoryId = categoryId;
         this.price = price;
@@ -19,7 +20,7 @@ public class Product {
         this.imagePath = imagePath;
     }
     
-    public Product(int id, String name, int categoryId, String categoryName, double price, int stockQuantity, String imagePath) {
+    public Product(int id, String name, int categoryId, String categoryName, Money price, int stockQuantity, String imagePath) {
         this.id = id;
         this.name = name;
         this.categoryId = categoryId;
@@ -29,6 +30,15 @@ public class Product {
         this.imagePath = imagePath;
     }
     
+    public Product(int id, String name, int categoryId, String categoryName, Money price, int stockQuantity, String imagePath, String barcode) {
+        this(id, name, categoryId, categoryName, price, stockQuantity, imagePath);
+        this.barcode = barcode;
+    }
+    
+    public Product(Product other) {
+        this(other.id, other.name, other.categoryId, other.categoryName, other.price, other.stockQuantity, other.imagePath, other.barcode);
+    }
+    
     // Getters and Setters
     public int getId() {
         return id;
@@ -62,11 +72,11 @@ public class Product {
         this.categoryName = categoryName;
     }
     
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
     
-    public void setPrice(double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
     
@@ -86,6 +96,14 @@ public class Product {
         this.imagePath = imagePath;
     }
     
+    public String getBarcode() {
+        return barcode;
+    }
+    
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+    
     @Override
     public String toString() {
         return name;
@@ -5,18 +5,19 @@ import java.util.List;
 
 public class Sale {
     private int id;
-    private double totalAmount;
+    private Money totalAmount;
     private LocalDateTime saleDate;
     private List<SaleItem> items;
+    private int itemCount;
     
     public Sale() {}
     
-    public Sale(double totalAmount) {
+    public Sale(Money totalAmount) {
         this.totalAmount = totalAmount;
         this.saleDate = LocalDateTime.now();
     }
     
-    public Sale(int id, double totalAmount, LocalDateTime saleDate) {
+    public Sale(int id, Money totalAmount, LocalDateTime saleDate) {
         this.id = id;
         this.totalAmount = totalAmount;
         this.saleDate = saleDate;
@@ -31,11 +32,11 @@ public class Sale {
         this.id = id;
     }
     
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
     
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
     
@@ -55,8 +56,16 @@ public class Sale {
         this.items = items;
     }
     
+    public int getItemCount() {
+        return itemCount;
+    }
+    
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+    
     @Override
     public String toString() {
-        return "Sale #" + id + " - $" + String.format("%.2f", totalAmount) + " - " + saleDate;
+        return "Sale #" + id + " - $" + totalAmount + " - " + saleDate;
     }
 }
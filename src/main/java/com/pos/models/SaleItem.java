@@ -1,32 +1,40 @@
 package com.pos.models;
 
-public class SaleItem {
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+/**
+ * A sale line. Quantity and subtotal are observable, so a cart table updates in place when the
+ * quantity changes. Not thread-safe: cart items belong to the JavaFX Application Thread.
+ */
+public final class SaleItem {
     private int id;
     private int saleId;
     private int productId;
     private String productName;
-    private int quantity;
-    private double unitPrice;
-    private double subtotal;
+    private final ReadOnlyObjectWrapper<Integer> quantity = new ReadOnlyObjectWrapper<>(this, "quantity", 0);
+    private Money unitPrice;
+    private final ReadOnlyObjectWrapper<Money> subtotal = new ReadOnlyObjectWrapper<>(this, "subtotal");
+    private String productImagePath;
     
     public SaleItem() {}
     
-    public SaleItem(int productId, String productName, int quantity, double unitPrice) {
+    public SaleItem(int productId, String productName, int quantity, Money unitPrice) {
         this.productId = productId;
         this.productName = productName;
-        this.quantity = quantity;
+        this.quantity.set(quantity);
         this.unitPrice = unitPrice;
-        this.subtotal = quantity * unitPrice;
+        this.subtotal.set(unitPrice.times(quantity));
     }
     
-    public SaleItem(int id, int saleId, int productId, String productName, int quantity, double unitPrice, double subtotal) {
+    public SaleItem(int id, int saleId, int productId, String productName, int quantity, Money unitPrice, Money subtotal) {
         this.id = id;
         this.saleId = saleId;
         this.productId = productId;
         this.productName = productName;
-        this.quantity = quantity;
+        this.quantity.set(quantity);
         this.unitPrice = unitPrice;
-        this.subtotal = subtotal;
+        this.subtotal.set(subtotal);
     }
     
     // Getters and Setters
@@ -63,33 +71,51 @@ public class SaleItem {
     }
     
     public int getQuantity() {
-        return quantity;
+        return quantity.get();
     }
     
     public void setQuantity(int quantity) {
-        this.quantity = quantity;
-        this.subtotal = quantity * unitPrice;
+        this.quantity.set(quantity);
+        if (unitPrice != null) {
+            this.subtotal.set(unitPrice.times(quantity));
+        }
+    }
+    
+    public ReadOnlyObjectProperty<Integer> quantityProperty() {
+        return quantity.getReadOnlyProperty();
     }
     
-    public double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
     
-    public void setUnitPrice(double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
-        this.subtotal = quantity * unitPrice;
+        this.subtotal.set(unitPrice.times(getQuantity()));
+    }
+    
+    public Money getSubtotal() {
+        return subtotal.get();
+    }
+    
+    public void setSubtotal(Money subtotal) {
+        this.subtotal.set(subtotal);
+    }
+    
+    public ReadOnlyObjectProperty<Money> subtotalProperty() {
+        return subtotal.getReadOnlyProperty();
     }
     
-    public double getSubtotal() {
-        return subtotal;
+    public String getProductImagePath() {
+        return productImagePath;
     }
     
-    public void setSubtotal(double subtotal) {
-        this.subtotal = subtotal;
+    public void setProductImagePath(String productImagePath) {
+        this.productImagePath = productImagePath;
     }
     
     @Override
     public String toString() {
-        return productName + " x" + quantity + " = $" + String.format("%.2f", subtotal);
+        return productName + " x" + getQuantity() + " = $" + getSubtotal();
     }
 }
@@ -0,0 +1,20 @@
+package com.pos.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line item together with the sale it belongs to, as streamed by the sales export.
+ * {@code productName} is null if the product has since been deleted.
+ */
+public record SaleLine(
+    int saleId,
+    LocalDateTime saleDate,
+    Money saleTotal,
+    int itemId,
+    int productId,
+    String productName,
+    int quantity,
+    Money unitPrice,
+    Money subtotal
+) {
+}
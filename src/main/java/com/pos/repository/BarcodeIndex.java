@@ -0,0 +1,107 @@
+package com.pos.repository;
+
+import com.pos.models.Product;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Barcode to product id lookup in flat primitive arrays: open addressing with linear probing
+ * over 64-bit hashes of the codes, so a scan costs one hash and usually one probe, with no
+ * boxing. Immutable; a change builds a new index. A hash only identifies a candidate, so
+ * callers confirm the product's actual barcode.
+ */
+final class BarcodeIndex {
+    static final int NOT_FOUND = -1;
+    
+    private static final long EMPTY = 0L;
+    
+    private final long[] hashes;
+    private final int[] ids;
+    private final int size;
+    
+    private BarcodeIndex(long[] hashes, int[] ids, int size) {
+        this.hashes = hashes;
+        this.ids = ids;
+        this.size = size;
+    }
+    
+    static BarcodeIndex build(Collection<Product> products) {
+        long[] hashes = new long[capacityFor(products.size())];
+        int[] ids = new int[hashes.length];
+        int size = 0;
+        for (Product product : products) {
+            if (product.getBarcode() != null) {
+                put(hashes, ids, hash(product.getBarcode()), product.getId());
+                size++;
+            }
+        }
+        return new BarcodeIndex(hashes, ids, size);
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Id of the product that probably carries this barcode, or {@link #NOT_FOUND}.
+     */
+    int find(String barcode) {
+        long hash = hash(barcode);
+        int mask = hashes.length - 1;
+        for (int slot = spread(hash) & mask; hashes[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash) {
+                return ids[slot];
+            }
+        }
+        return NOT_FOUND;
+    }
+    
+    /**
+     * A copy where the given ids lose their old barcode and take the ones in {@code added}.
+     */
+    BarcodeIndex with(Set<Integer> changedIds, Map<Integer, String> added) {
+        int kept = 0;
+        long[] nextHashes = new long[capacityFor(size + added.size())];
+        int[] nextIds = new int[nextHashes.length];
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != EMPTY && !changedIds.contains(ids[slot])) {
+                put(nextHashes, nextIds, hashes[slot], ids[slot]);
+                kept++;
+            }
+        }
+        for (Map.Entry<Integer, String> entry : added.entrySet()) {
+            put(nextHashes, nextIds, hash(entry.getValue()), entry.getKey());
+        }
+        return new BarcodeIndex(nextHashes, nextIds, kept + added.size());
+    }
+    
+    private static void put(long[] hashes, int[] ids, long hash, int id) {
+        int mask = hashes.length - 1;
+        int slot = spread(hash) & mask;
+        while (hashes[slot] != EMPTY && hashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        ids[slot] = id;
+    }
+    
+    private static int capacityFor(int entries) {
+        return Integer.highestOneBit(Math.max(8, entries) * 2 - 1) << 1;
+    }
+    
+    private static int spread(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+    
+    // 64-bit FNV-1a; zero marks an empty slot, so it is never produced
+    private static long hash(String barcode) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < barcode.length(); i++) {
+            hash ^= barcode.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1L : hash;
+    }
+}
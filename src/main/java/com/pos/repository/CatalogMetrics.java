@@ -0,0 +1,25 @@
+package com.pos.repository;
+
+public record CatalogMetrics(
+    int cachedProducts,
+    int maxEntries,
+    boolean loaded,
+    long hits,
+    long misses,
+    long loads,
+    long updates,
+    long invalidations
+) {
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(
+            "catalog: %d/%d products %s, %d hits, %d misses (%.1f%% hit rate), %d loads, %d updates, %d invalidations",
+            cachedProducts, maxEntries, loaded ? "cached" : "not cached", hits, misses, hitRate() * 100,
+            loads, updates, invalidations);
+    }
+}
@@ -1,19 +1,25 @@
 package com.pos.repository;
 
 import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.events.ChangeType;
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.EventBus;
 import com.pos.models.Category;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CategoryRepository {
+    private final EventBus events = EventBus.getInstance();
     
     public List<Category> findAll() throws SQLException {
         List<Category> categories = new ArrayList<>();
-        String sql = "SELECT * FROM categories ORDER BY name";
+        String sql = "SELECT * FROM categories ORDER BY name, id";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -32,7 +38,7 @@ public class CategoryRepository {
     public Category findById(int id) throws SQLException {
         String sql = "SELECT * FROM categories WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
@@ -53,7 +59,7 @@ public class CategoryRepository {
     public Category findByName(String name) throws SQLException {
         String sql = "SELECT * FROM categories WHERE name = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, name);
@@ -74,56 +80,75 @@ public class CategoryRepository {
     public int save(Category category) throws SQLException {
         String sql = "INSERT INTO categories (name, description) VALUES (?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getDescription());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating category failed, no rows affected.");
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating category failed, no ID obtained.");
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating category failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int id = generatedKeys.getInt(1);
+                        StatsRepository.categoriesChanged(1);
+                        events.publishOnCommit(new CategoryChanged(ChangeType.CREATED, id,
+                            new Category(id, category.getName(), category.getDescription())));
+                        return id;
+                    } else {
+                        throw new SQLException("Creating category failed, no ID obtained.");
+                    }
                 }
             }
-        }
+        });
     }
     
     public boolean update(Category category) throws SQLException {
         String sql = "UPDATE categories SET name = ?, description = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getDescription());
-            stmt.setInt(3, category.getId());
-            
-            return stmt.executeUpdate() > 0;
-        }
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setString(1, category.getName());
+                stmt.setString(2, category.getDescription());
+                stmt.setInt(3, category.getId());
+                
+                boolean updated = stmt.executeUpdate() > 0;
+                if (updated) {
+                    ProductCatalog.getInstance().categoriesChanged();
+                    events.publishOnCommit(new CategoryChanged(ChangeType.UPDATED, category.getId(),
+                        new Category(category.getId(), category.getName(), category.getDescription())));
+                }
+                return updated;
+            }
+        });
     }
     
     public boolean delete(int id) throws SQLException {
         String sql = "DELETE FROM categories WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        }
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, id);
+                boolean deleted = stmt.executeUpdate() > 0;
+                if (deleted) {
+                    StatsRepository.categoriesChanged(-1);
+                    ProductCatalog.getInstance().categoriesChanged();
+                    events.publishOnCommit(new CategoryChanged(ChangeType.DELETED, id, null));
+                }
+                return deleted;
+            }
+        });
     }
     
     public boolean hasProducts(int categoryId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM products WHERE category_id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, categoryId);
@@ -132,4 +157,33 @@ public class CategoryRepository {
             }
         }
     }
+    
+    // Async variants for UI code: run on DbExecutor, never on the JavaFX Application Thread
+    public CompletableFuture<List<Category>> findAllAsync() {
+        return DbExecutor.supply(this::findAll);
+    }
+    
+    public CompletableFuture<Category> findByIdAsync(int id) {
+        return DbExecutor.supply(() -> findById(id));
+    }
+    
+    public CompletableFuture<Category> findByNameAsync(String name) {
+        return DbExecutor.supply(() -> findByName(name));
+    }
+    
+    public CompletableFuture<Integer> saveAsync(Category category) {
+        return DbExecutor.supply(() -> save(category));
+    }
+    
+    public CompletableFuture<Boolean> updateAsync(Category category) {
+        return DbExecutor.supply(() -> update(category));
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DbExecutor.supply(() -> delete(id));
+    }
+    
+    public CompletableFuture<Boolean> hasProductsAsync(int categoryId) {
+        return DbExecutor.supply(() -> hasProducts(categoryId));
+    }
 }
@@ -0,0 +1,39 @@
+package com.pos.repository;
+
+import java.sql.SQLException;
+
+public class InsufficientStockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+    
+    private final int productId;
+    private final String productName;
+    private final int requested;
+    private final int available;
+    
+    public InsufficientStockException(int productId, String productName, int requested, int available) {
+        super(available < 0
+            ? productName + " no longer exists."
+            : "Insufficient stock for " + productName + ". Available: " + available + ", Required: " + requested);
+        this.productId = productId;
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+    }
+    
+    public int getProductId() {
+        return productId;
+    }
+    
+    public String getProductName() {
+        return productName;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+    
+    // -1 when the product has been deleted
+    public int getAvailable() {
+        return available;
+    }
+}
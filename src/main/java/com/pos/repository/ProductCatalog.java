@@ -0,0 +1,377 @@
+package com.pos.repository;
+
+import com.pos.database.DatabaseManager;
+import com.pos.models.Money;
+import com.pos.models.Product;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of the product catalog, shared by every {@link ProductRepository}. It is
+ * loaded on first use and then patched by the repository write paths once each change
+ * commits, so reads never go back to the database. Catalogs larger than
+ * {@code db.catalog.maxEntries} are not cached at all and reads fall through to SQL.
+ * Callers always get their own copies, so editing a returned product cannot corrupt the cache.
+ */
+public final class ProductCatalog {
+    private static final ProductCatalog INSTANCE = new ProductCatalog();
+    
+    private static final Comparator<Product> BY_NAME =
+        Comparator.comparing(Product::getName).thenComparingInt(Product::getId);
+    
+    private static final String PRODUCT_SQL = """
+        SELECT p.*, c.name as category_name
+        FROM products p
+        JOIN categories c ON p.category_id = c.id
+    """;
+    
+    // Loaded on a read connection, then patched in place by the writer thread as changes commit
+    private volatile Snapshot snapshot;
+    // The catalog outgrew maxEntries; cleared again by invalidate()
+    private volatile boolean oversized;
+    // Bumped by every committed change; a load that overlaps one is served but not cached
+    private long generation;
+    private final Object loadLock = new Object();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    private ProductCatalog() {}
+    
+    public static ProductCatalog getInstance() {
+        return INSTANCE;
+    }
+    
+    public CatalogMetrics getMetrics() {
+        Snapshot current = snapshot;
+        return new CatalogMetrics(current == null ? 0 : current.size(), maxEntries(), current != null,
+            hits.sum(), misses.sum(), loads.get(), updates.get(), invalidations.get());
+    }
+    
+    /**
+     * Drops the cached catalog so the next read reloads it, e.g. after bulk changes made
+     * outside the repositories.
+     */
+    public void invalidate() throws SQLException {
+        DatabaseManager.write(conn -> {
+            clear();
+            return null;
+        });
+    }
+    
+    /**
+     * The cached catalog, loading it if needed, or null when it has to be read from the database.
+     */
+    Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        if (oversized || maxEntries() == 0) {
+            return null;
+        }
+        return load();
+    }
+    
+    /**
+     * The cached catalog if it is already loaded, otherwise null. Never touches the database,
+     * so it is safe on the JavaFX Application Thread.
+     */
+    Snapshot peek() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+        }
+        return current;
+    }
+    
+    /**
+     * Called from inside a write after products were inserted, updated or deleted. Reads the
+     * new rows on the writer's connection and applies them once the change commits. Returns
+     * the rows by id for the caller's change events; deleted products have none.
+     */
+    Map<Integer, Product> productsChanged(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Product> rows = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(PRODUCT_SQL + "WHERE p.id = ?")) {
+            for (int id : ids) {
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        rows.put(id, mapProduct(rs));
+                    }
+                }
+            }
+        }
+        
+        // Registered even with nothing cached, so a load running meanwhile learns of the change
+        List<Integer> changed = List.copyOf(ids);
+        DatabaseManager.onCommit(() -> apply(changed, rows));
+        return rows;
+    }
+    
+    /**
+     * Category names are copied into every product, so any category change reloads the catalog.
+     */
+    void categoriesChanged() throws SQLException {
+        DatabaseManager.onCommit(this::clear);
+    }
+    
+    /**
+     * Called from inside a write that changed too many products to patch one by one, such as
+     * a bulk import. The catalog is reloaded on the next read after the change commits.
+     */
+    void bulkChanged() throws SQLException {
+        DatabaseManager.onCommit(this::clear);
+    }
+    
+    // One load at a time; concurrent readers wait for it rather than reading the catalog twice
+    private Snapshot load() throws SQLException {
+        synchronized (loadLock) {
+            Snapshot current = snapshot;
+            if (current != null || oversized) {
+                return current;
+            }
+            
+            long started;
+            synchronized (this) {
+                started = generation;
+            }
+            List<Product> products = new ArrayList<>();
+            boolean tooLarge = false;
+            try (Connection conn = DatabaseManager.getReadConnection();
+                 Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products")) {
+                    tooLarge = rs.next() && rs.getInt(1) > maxEntries();
+                }
+                if (!tooLarge) {
+                    try (ResultSet rs = stmt.executeQuery(PRODUCT_SQL)) {
+                        while (rs.next()) {
+                            products.add(mapProduct(rs));
+                        }
+                    }
+                }
+            }
+            
+            Snapshot loaded = tooLarge ? null
+                : new Snapshot(products, ProductSearchIndex.build(products), BarcodeIndex.build(products));
+            synchronized (this) {
+                // A change committed after the rows were read may be missing from them
+                if (generation == started) {
+                    snapshot = loaded;
+                    oversized = tooLarge;
+                    if (loaded != null) {
+                        loads.incrementAndGet();
+                    }
+                }
+            }
+            return loaded;
+        }
+    }
+    
+    private synchronized void apply(List<Integer> ids, Map<Integer, Product> rows) {
+        generation++;
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        // The search index is patched in place as well
+        for (int id : ids) {
+            Product row = rows.get(id);
+            if (row == null) {
+                current.searchIndex.remove(id);
+            } else {
+                current.searchIndex.update(row);
+            }
+        }
+        current.patch(ids, rows);
+        if (current.size() > maxEntries()) {
+            snapshot = null;
+            oversized = true;
+        }
+        updates.incrementAndGet();
+    }
+    
+    private synchronized void clear() {
+        generation++;
+        snapshot = null;
+        oversized = false;
+        invalidations.incrementAndGet();
+    }
+    
+    private static int maxEntries() {
+        return DatabaseManager.getConfig().getCatalogMaxEntries();
+    }
+    
+    /**
+     * Maps a row of {@code products} joined with its category's name, as selected by every
+     * product query.
+     */
+    static Product mapProduct(ResultSet rs) throws SQLException {
+        return new Product(
+            rs.getInt("id"),
+            rs.getString("name"),
+            rs.getInt("category_id"),
+            rs.getString("category_name"),
+            Money.ofCents(rs.getLong("price_cents")),
+            rs.getInt("stock_quantity"),
+            rs.getString("image_path"),
+            rs.getString("barcode")
+        );
+    }
+    
+    /**
+     * The cached catalog. Changes are patched into it in place, one entry at a time, so readers
+     * on other threads see each product either before or after a change; lookups hand out copies.
+     */
+    static final class Snapshot {
+        // Keyed by name and id; a change that keeps the name replaces only the value
+        private final ConcurrentSkipListMap<Product, Product> byName = new ConcurrentSkipListMap<>(BY_NAME);
+        private final Map<Integer, Product> byId;
+        private final ProductSearchIndex searchIndex;
+        private volatile BarcodeIndex barcodes;
+        
+        private Snapshot(Collection<Product> products, ProductSearchIndex searchIndex, BarcodeIndex barcodes) {
+            this.searchIndex = searchIndex;
+            this.barcodes = barcodes;
+            this.byId = new ConcurrentHashMap<>(products.size() * 2);
+            for (Product product : products) {
+                byId.put(product.getId(), product);
+                byName.put(product, product);
+            }
+        }
+        
+        int size() {
+            return byId.size();
+        }
+        
+        List<Product> all() {
+            List<Product> products = new ArrayList<>(byId.size());
+            for (Product product : byName.values()) {
+                products.add(new Product(product));
+            }
+            return products;
+        }
+        
+        // The cached instances themselves; see ProductRepository.findAllShared
+        List<Product> allShared() {
+            return new ArrayList<>(byName.values());
+        }
+        
+        BitSet matchingIds(String query) {
+            return searchIndex.matches(query);
+        }
+        
+        Product byId(int id) {
+            Product product = byId.get(id);
+            return product == null ? null : new Product(product);
+        }
+        
+        Map<Integer, Product> byIds(Collection<Integer> ids) {
+            Map<Integer, Product> products = new HashMap<>();
+            for (int id : ids) {
+                Product product = byId.get(id);
+                if (product != null) {
+                    products.put(id, new Product(product));
+                }
+            }
+            return products;
+        }
+        
+        Product byBarcode(String barcode) {
+            Product product = byId.get(barcodes.find(barcode));
+            if (product != null && barcode.equals(product.getBarcode())) {
+                return new Product(product);
+            }
+            if (product == null) {
+                return null;
+            }
+            // Two codes with the same 64-bit hash; settle it the slow way
+            for (Product candidate : byName.values()) {
+                if (barcode.equals(candidate.getBarcode())) {
+                    return new Product(candidate);
+                }
+            }
+            return null;
+        }
+        
+        List<Product> byCategory(int categoryId) {
+            List<Product> products = new ArrayList<>();
+            for (Product product : byName.values()) {
+                if (product.getCategoryId() == categoryId) {
+                    products.add(new Product(product));
+                }
+            }
+            return products;
+        }
+        
+        List<Product> nameContains(String term) {
+            String needle = term.toLowerCase(Locale.ROOT);
+            List<Product> products = new ArrayList<>();
+            for (Product product : byName.values()) {
+                if (product.getName().toLowerCase(Locale.ROOT).contains(needle)) {
+                    products.add(new Product(product));
+                }
+            }
+            return products;
+        }
+        
+        List<Product> search(String query, int limit) {
+            List<Product> products = new ArrayList<>();
+            for (int id : searchIndex.search(query, limit)) {
+                Product product = byId.get(id);
+                if (product != null) {
+                    products.add(new Product(product));
+                }
+            }
+            return products;
+        }
+        
+        // O(log n) per changed product; only a barcode change rebuilds the barcode table
+        private void patch(List<Integer> ids, Map<Integer, Product> rows) {
+            Set<Integer> recoded = new HashSet<>();
+            Map<Integer, String> codes = new HashMap<>();
+            for (int id : ids) {
+                Product row = rows.get(id);
+                Product old = row == null ? byId.remove(id) : byId.put(id, row);
+                if (old != null && (row == null || !old.getName().equals(row.getName()))) {
+                    byName.remove(old);
+                }
+                if (row != null) {
+                    byName.put(row, row);
+                }
+                
+                String oldCode = old == null ? null : old.getBarcode();
+                String newCode = row == null ? null : row.getBarcode();
+                if (!Objects.equals(oldCode, newCode)) {
+                    recoded.add(id);
+                    if (newCode != null) {
+                        codes.put(id, newCode);
+                    }
+                }
+            }
+            if (!recoded.isEmpty()) {
+                barcodes = barcodes.with(recoded, codes);
+            }
+        }
+    }
+}
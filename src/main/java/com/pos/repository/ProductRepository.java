@@ -1,37 +1,53 @@
 package com.pos.repository;
 
 import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.events.ChangeType;
+import com.pos.events.DomainEvent.ProductChanged;
+import com.pos.events.DomainEvent.ProductsReloaded;
+import com.pos.events.DomainEvent.StockChanged;
+import com.pos.events.EventBus;
 import com.pos.models.Product;
+import com.pos.models.SaleItem;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiPredicate;
 
 public class ProductRepository {
+    // Stays well under SQLite's bound-parameter limit
+    private static final int MAX_IDS_PER_QUERY = 500;
+    
+    private final ProductCatalog catalog = ProductCatalog.getInstance();
+    private final EventBus events = EventBus.getInstance();
     
     public List<Product> findAll() throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.all();
+        }
+        
         List<Product> products = new ArrayList<>();
         String sql = """
-            SELECT p.*, c.name as category_name 
-            FROM products p 
-            JOIN categories c ON p.category_id = c.id 
-            ORDER BY p.name
+            SELECT p.*, c.name as category_name
+            FROM products p
+            JOIN categories c ON p.category_id = c.id
+            ORDER BY p.name, p.id
         """;
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                products.add(new Product(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getInt("category_id"),
-                    rs.getString("category_name"),
-                    rs.getDouble("price"),
-                    rs.getInt("stock_quantity"),
-                    rs.getString("image_path")
-                ));
+                products.add(ProductCatalog.mapProduct(rs));
             }
         }
         
@@ -39,28 +55,25 @@ public class ProductRepository {
     }
     
     public Product findById(int id) throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.byId(id);
+        }
+        
         String sql = """
-            SELECT p.*, c.name as category_name 
-            FROM products p 
-            JOIN categories c ON p.category_id = c.id 
+            SELECT p.*, c.name as category_name
+            FROM products p
+            JOIN categories c ON p.category_id = c.id
             WHERE p.id = ?
         """;
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("category_id"),
-                        rs.getString("category_name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock_quantity"),
-                        rs.getString("image_path")
-                    );
+                    return ProductCatalog.mapProduct(rs);
                 }
             }
         }
@@ -68,31 +81,127 @@ public class ProductRepository {
         return null;
     }
     
+    /**
+     * Looks up many products at once: one IN (...) query per chunk of ids instead of one
+     * findById per row. Ids that no longer exist are absent from the map.
+     */
+    public Map<Integer, Product> findByIds(Collection<Integer> ids) throws SQLException {
+        Map<Integer, Product> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+        
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.byIds(ids);
+        }
+        
+        List<Integer> idList = new ArrayList<>(ids);
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            for (int from = 0; from < idList.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = idList.subList(from, Math.min(from + MAX_IDS_PER_QUERY, idList.size()));
+                String sql = """
+                    SELECT p.*, c.name as category_name
+                    FROM products p
+                    JOIN categories c ON p.category_id = c.id
+                    WHERE p.id IN (%s)
+                """.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Product product = ProductCatalog.mapProduct(rs);
+                            products.put(product.getId(), product);
+                        }
+                    }
+                }
+            }
+        }
+        
+        return products;
+    }
+    
+    /**
+     * The product carrying this barcode/SKU, or null. Answered from the in-memory barcode
+     * index when the catalog is cached, otherwise through the unique barcode index.
+     */
+    public Product findByBarcode(String barcode) throws SQLException {
+        String code = normalizeBarcode(barcode);
+        if (code == null) {
+            return null;
+        }
+        
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.byBarcode(code);
+        }
+        
+        String sql = """
+            SELECT p.*, c.name as category_name
+            FROM products p
+            JOIN categories c ON p.category_id = c.id
+            WHERE p.barcode = ?
+        """;
+        
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, code);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return ProductCatalog.mapProduct(rs);
+                }
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Scanner fast path: looks the barcode up in the cached catalog only and never runs SQL,
+     * so it can be called on the JavaFX Application Thread. Returns null both for unknown
+     * codes and when the catalog is not cached; callers then fall back to
+     * {@link #findByBarcodeAsync(String)}.
+     */
+    public Product findByBarcodeCached(String barcode) {
+        String code = normalizeBarcode(barcode);
+        ProductCatalog.Snapshot cached = catalog.peek();
+        return code == null || cached == null ? null : cached.byBarcode(code);
+    }
+    
+    // Blank means "no barcode", stored as NULL so the unique index ignores it
+    private static String normalizeBarcode(String barcode) {
+        if (barcode == null || barcode.isBlank()) {
+            return null;
+        }
+        return barcode.trim();
+    }
+    
     public List<Product> findByCategory(int categoryId) throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.byCategory(categoryId);
+        }
+        
         List<Product> products = new ArrayList<>();
         String sql = """
-            SELECT p.*, c.name as category_name 
-            FROM products p 
-            JOIN categories c ON p.category_id = c.id 
+            SELECT p.*, c.name as category_name
+            FROM products p
+            JOIN categories c ON p.category_id = c.id
             WHERE p.category_id = ?
-            ORDER BY p.name
+            ORDER BY p.name, p.id
         """;
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, categoryId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    products.add(new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("category_id"),
-                        rs.getString("category_name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock_quantity"),
-                        rs.getString("image_path")
-                    ));
+                    products.add(ProductCatalog.mapProduct(rs));
                 }
             }
         }
@@ -101,30 +210,27 @@ public class ProductRepository {
     }
     
     public List<Product> searchByName(String searchTerm) throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.nameContains(searchTerm);
+        }
+        
         List<Product> products = new ArrayList<>();
         String sql = """
-            SELECT p.*, c.name as category_name 
-            FROM products p 
-            JOIN categories c ON p.category_id = c.id 
+            SELECT p.*, c.name as category_name
+            FROM products p
+            JOIN categories c ON p.category_id = c.id
             WHERE p.name LIKE ?
-            ORDER BY p.name
+            ORDER BY p.name, p.id
         """;
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, "%" + searchTerm + "%");
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    products.add(new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getInt("category_id"),
-                        rs.getString("category_name"),
-                        rs.getDouble("price"),
-                        rs.getInt("stock_quantity"),
-                        rs.getString("image_path")
-                    ));
+                    products.add(ProductCatalog.mapProduct(rs));
                 }
             }
         }
@@ -132,71 +238,331 @@ public class ProductRepository {
         return products;
     }
     
-    public int save(Product product) throws SQLException {
-        String sql = "INSERT INTO products (name, category_id, price, stock_quantity, image_path) VALUES (?, ?, ?, ?, ?)";
+    /**
+     * As-you-type product search, best matches first; accents and case are ignored. Served
+     * from the in-memory n-gram index when the catalog is cached, where every word must
+     * appear somewhere in the name or barcode ("aptop" finds "Laptop"). Otherwise falls back to FTS5,
+     * where every word must match the start of a word ("lap comp" finds "Laptop Computer").
+     */
+    public List<Product> search(String query, int limit) throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.search(query, limit);
+        }
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, product.getName());
-            stmt.setInt(2, product.getCategoryId());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setInt(4, product.getStockQuantity());
-            stmt.setString(5, product.getImagePath());
+        List<Product> products = new ArrayList<>();
+        String match = toFtsQuery(query);
+        if (match.isEmpty()) {
+            return products;
+        }
+        
+        String sql = """
+            SELECT p.*, c.name as category_name
+            FROM products_fts f
+            JOIN products p ON p.id = f.rowid
+            JOIN categories c ON p.category_id = c.id
+            WHERE products_fts MATCH ?
+            ORDER BY f.rank, p.name
+            LIMIT ?
+        """;
+        
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating product failed, no rows affected.");
+            stmt.setString(1, match);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(ProductCatalog.mapProduct(rs));
+                }
             }
+        }
+        
+        return products;
+    }
+    
+    /**
+     * All products in name order like {@link #findAll()}, but as the cached catalog's own
+     * instances instead of copies, so a screen mirroring the whole catalog does not hold it in
+     * memory a second time. They must never be modified; edit a copy. When the catalog is not
+     * cached these are fresh copies from the database.
+     */
+    public List<Product> findAllShared() throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        return cached != null ? cached.allShared() : findAll();
+    }
+    
+    /**
+     * Ids of every product whose name or barcode contains every word of the query, ignoring
+     * case and accents, unranked and unlimited, for filtering a list that already holds the
+     * products. Matches are the same whether or not the catalog is cached.
+     */
+    public BitSet findMatchingIds(String query) throws SQLException {
+        ProductCatalog.Snapshot cached = catalog.current();
+        if (cached != null) {
+            return cached.matchingIds(query);
+        }
+        
+        // Too large to cache: test names and barcodes as they stream past, by the index's rules
+        BiPredicate<String, String> matcher = ProductSearchIndex.matcher(query);
+        BitSet ids = new BitSet();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id, name, barcode FROM products");
+             ResultSet rs = stmt.executeQuery()) {
             
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating product failed, no ID obtained.");
+            while (rs.next()) {
+                if (matcher.test(rs.getString("name"), rs.getString("barcode"))) {
+                    ids.set(rs.getInt("id"));
+                }
+            }
+        }
+        return ids;
+    }
+    
+    // Each word becomes a quoted prefix term, so user input can never be read as FTS syntax
+    private static String toFtsQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String token : query.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                if (match.length() > 0) {
+                    match.append(' ');
                 }
+                match.append('"').append(token).append("\"*");
             }
         }
+        return match.toString();
+    }
+    
+    public int save(Product product) throws SQLException {
+        String sql = "INSERT INTO products (name, category_id, price_cents, stock_quantity, image_path, barcode) VALUES (?, ?, ?, ?, ?, ?)";
+        
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                stmt.setString(1, product.getName());
+                stmt.setInt(2, product.getCategoryId());
+                stmt.setLong(3, product.getPrice().cents());
+                stmt.setInt(4, product.getStockQuantity());
+                stmt.setString(5, product.getImagePath());
+                stmt.setString(6, normalizeBarcode(product.getBarcode()));
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating product failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int id = generatedKeys.getInt(1);
+                        StatsRepository.productsChanged(1);
+                        Map<Integer, Product> rows = catalog.productsChanged(conn, List.of(id));
+                        events.publishOnCommit(new ProductChanged(ChangeType.CREATED, id, new Product(rows.get(id))));
+                        return id;
+                    } else {
+                        throw new SQLException("Creating product failed, no ID obtained.");
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Inserts many products with one reused statement and a single JDBC batch; run it inside
+     * {@link DatabaseManager#transaction} so the whole batch shares one commit. A product whose
+     * barcode is already taken is skipped rather than failing the batch.
+     *
+     * <p>Publishes no change event, as bulk inserts come in many batches: the caller publishes
+     * one {@link ProductsReloaded} once it is done, so open product lists reload only once.
+     *
+     * @return per product, 1 if it was inserted or 0 if it was skipped
+     */
+    public int[] saveAll(List<Product> products) throws SQLException {
+        String sql = "INSERT OR IGNORE INTO products (name, category_id, price_cents, stock_quantity, image_path, barcode) VALUES (?, ?, ?, ?, ?, ?)";
+        
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                for (Product product : products) {
+                    stmt.setString(1, product.getName());
+                    stmt.setInt(2, product.getCategoryId());
+                    stmt.setLong(3, product.getPrice().cents());
+                    stmt.setInt(4, product.getStockQuantity());
+                    stmt.setString(5, product.getImagePath());
+                    stmt.setString(6, normalizeBarcode(product.getBarcode()));
+                    stmt.addBatch();
+                }
+                
+                int[] counts = stmt.executeBatch();
+                int inserted = 0;
+                for (int count : counts) {
+                    inserted += count;
+                }
+                if (inserted > 0) {
+                    StatsRepository.productsChanged(inserted);
+                    catalog.bulkChanged();
+                }
+                return counts;
+            }
+        });
     }
     
     public boolean update(Product product) throws SQLException {
-        String sql = "UPDATE products SET name = ?, category_id = ?, price = ?, stock_quantity = ?, image_path = ? WHERE id = ?";
+        String sql = "UPDATE products SET name = ?, category_id = ?, price_cents = ?, stock_quantity = ?, image_path = ?, barcode = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, product.getName());
-            stmt.setInt(2, product.getCategoryId());
-            stmt.setDouble(3, product.getPrice());
-            stmt.setInt(4, product.getStockQuantity());
-            stmt.setString(5, product.getImagePath());
-            stmt.setInt(6, product.getId());
-            
-            return stmt.executeUpdate() > 0;
-        }
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setString(1, product.getName());
+                stmt.setInt(2, product.getCategoryId());
+                stmt.setLong(3, product.getPrice().cents());
+                stmt.setInt(4, product.getStockQuantity());
+                stmt.setString(5, product.getImagePath());
+                stmt.setString(6, normalizeBarcode(product.getBarcode()));
+                stmt.setInt(7, product.getId());
+                
+                boolean updated = stmt.executeUpdate() > 0;
+                if (updated) {
+                    Map<Integer, Product> rows = catalog.productsChanged(conn, List.of(product.getId()));
+                    events.publishOnCommit(new ProductChanged(ChangeType.UPDATED, product.getId(),
+                        new Product(rows.get(product.getId()))));
+                }
+                return updated;
+            }
+        });
     }
     
     public boolean delete(int id) throws SQLException {
         String sql = "DELETE FROM products WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        }
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, id);
+                boolean deleted = stmt.executeUpdate() > 0;
+                if (deleted) {
+                    StatsRepository.productsChanged(-1);
+                    catalog.productsChanged(conn, List.of(id));
+                    events.publishOnCommit(new ProductChanged(ChangeType.DELETED, id, null));
+                }
+                return deleted;
+            }
+        });
     }
     
     public boolean updateStock(int productId, int newStock) throws SQLException {
         String sql = "UPDATE products SET stock_quantity = ? WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, newStock);
-            stmt.setInt(2, productId);
-            
-            return stmt.executeUpdate() > 0;
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                stmt.setInt(1, newStock);
+                stmt.setInt(2, productId);
+                
+                boolean updated = stmt.executeUpdate() > 0;
+                if (updated) {
+                    catalog.productsChanged(conn, List.of(productId));
+                    events.publishOnCommit(new StockChanged(productId, newStock));
+                }
+                return updated;
+            }
+        });
+    }
+    
+    /**
+     * Takes the sold quantities off stock, but only where enough stock is left. Meant to run
+     * inside a checkout transaction: the first line that cannot be covered throws, and the
+     * caller's rollback undoes the lines already applied.
+     */
+    public void decrementStock(List<SaleItem> items) throws SQLException {
+        String sql = "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+        
+        DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                for (SaleItem item : items) {
+                    stmt.setInt(1, item.getQuantity());
+                    stmt.setInt(2, item.getProductId());
+                    stmt.setInt(3, item.getQuantity());
+                    stmt.addBatch();
+                }
+                
+                int[] counts = stmt.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        SaleItem item = items.get(i);
+                        throw new InsufficientStockException(item.getProductId(), item.getProductName(),
+                            item.getQuantity(), currentStock(conn, item.getProductId()));
+                    }
+                }
+            }
+            Map<Integer, Product> rows = catalog.productsChanged(conn, items.stream().map(SaleItem::getProductId).toList());
+            for (Product row : rows.values()) {
+                events.publishOnCommit(new StockChanged(row.getId(), row.getStockQuantity()));
+            }
+            return null;
+        });
+    }
+    
+    private int currentStock(Connection conn, int productId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT stock_quantity FROM products WHERE id = ?")) {
+            stmt.setInt(1, productId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
         }
     }
+    
+    // Async variants for UI code: run on DbExecutor, never on the JavaFX Application Thread
+    public CompletableFuture<List<Product>> findAllAsync() {
+        return DbExecutor.supply(this::findAll);
+    }
+    
+    public CompletableFuture<Product> findByIdAsync(int id) {
+        return DbExecutor.supply(() -> findById(id));
+    }
+    
+    public CompletableFuture<Map<Integer, Product>> findByIdsAsync(Collection<Integer> ids) {
+        List<Integer> idList = List.copyOf(ids);
+        return DbExecutor.supply(() -> findByIds(idList));
+    }
+    
+    public CompletableFuture<Product> findByBarcodeAsync(String barcode) {
+        return DbExecutor.supply(() -> findByBarcode(barcode));
+    }
+    
+    public CompletableFuture<List<Product>> findByCategoryAsync(int categoryId) {
+        return DbExecutor.supply(() -> findByCategory(categoryId));
+    }
+    
+    public CompletableFuture<List<Product>> searchByNameAsync(String searchTerm) {
+        return DbExecutor.supply(() -> searchByName(searchTerm));
+    }
+    
+    public CompletableFuture<List<Product>> searchAsync(String query, int limit) {
+        return DbExecutor.supply(() -> search(query, limit));
+    }
+    
+    public CompletableFuture<List<Product>> findAllSharedAsync() {
+        return DbExecutor.supply(this::findAllShared);
+    }
+    
+    public CompletableFuture<BitSet> findMatchingIdsAsync(String query) {
+        return DbExecutor.supply(() -> findMatchingIds(query));
+    }
+    
+    public CompletableFuture<Integer> saveAsync(Product product) {
+        return DbExecutor.supply(() -> save(product));
+    }
+    
+    public CompletableFuture<Boolean> updateAsync(Product product) {
+        return DbExecutor.supply(() -> update(product));
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DbExecutor.supply(() -> delete(id));
+    }
+    
+    public CompletableFuture<Boolean> updateStockAsync(int productId, int newStock) {
+        return DbExecutor.supply(() -> updateStock(productId, newStock));
+    }
 }
@@ -0,0 +1,365 @@
+package com.pos.repository;
+
+import com.pos.models.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * As-you-type search over the cached catalog. Every word of every indexed product field is
+ * broken into 2- and 3-character grams, each mapped to a sorted int[] of product ids. A query
+ * intersects the postings of its grams and checks the few surviving candidates, so substring
+ * and prefix lookups never scan the catalog.
+ *
+ * <p>Posting arrays are never modified in place: updates swap in a new array, so searches can
+ * run on any thread while the writer thread applies changes.
+ */
+public final class ProductSearchIndex {
+    private static final Pattern WORD_BREAK = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int[] NO_IDS = new int[0];
+    private static final Comparator<Match> BEST_FIRST =
+        Comparator.comparingInt(Match::rank).thenComparing(Match::text).thenComparingInt(Match::id);
+    
+    private final ConcurrentHashMap<Long, int[]> postings;
+    // Normalised text per product, used to confirm candidates and to rank them
+    private final ConcurrentHashMap<Integer, String> texts;
+    
+    private ProductSearchIndex(ConcurrentHashMap<Long, int[]> postings, ConcurrentHashMap<Integer, String> texts) {
+        this.postings = postings;
+        this.texts = texts;
+    }
+    
+    public static ProductSearchIndex build(Collection<Product> products) {
+        List<Product> byId = new ArrayList<>(products);
+        byId.sort(Comparator.comparingInt(Product::getId));
+        
+        // Ids arrive in ascending order, so every posting list is built by appending
+        Map<Long, IntList> lists = new HashMap<>();
+        ConcurrentHashMap<Integer, String> texts = new ConcurrentHashMap<>(byId.size() * 2);
+        for (Product product : byId) {
+            String text = text(product);
+            texts.put(product.getId(), text);
+            for (long gram : grams(text)) {
+                lists.computeIfAbsent(gram, k -> new IntList()).add(product.getId());
+            }
+        }
+        
+        ConcurrentHashMap<Long, int[]> postings = new ConcurrentHashMap<>(lists.size() * 2);
+        lists.forEach((gram, ids) -> postings.put(gram, ids.toArray()));
+        return new ProductSearchIndex(postings, texts);
+    }
+    
+    public int size() {
+        return texts.size();
+    }
+    
+    /**
+     * Adds the product, or re-indexes it if its searchable fields changed.
+     */
+    public void update(Product product) {
+        String text = text(product);
+        String old = texts.put(product.getId(), text);
+        if (text.equals(old)) {
+            return;
+        }
+        
+        int id = product.getId();
+        long[] current = grams(text);
+        long[] previous = old == null ? new long[0] : grams(old);
+        for (long gram : previous) {
+            if (Arrays.binarySearch(current, gram) < 0) {
+                removePosting(gram, id);
+            }
+        }
+        for (long gram : current) {
+            if (Arrays.binarySearch(previous, gram) < 0) {
+                postings.merge(gram, new int[] {id}, (ids, single) -> insert(ids, id));
+            }
+        }
+    }
+    
+    public void remove(int id) {
+        String old = texts.remove(id);
+        if (old != null) {
+            for (long gram : grams(old)) {
+                removePosting(gram, id);
+            }
+        }
+    }
+    
+    /**
+     * Ids of products whose indexed fields contain every word of the query, best matches
+     * first: whole-query prefix, then all words matching at a word start, then anywhere.
+     * Accents and case are ignored.
+     */
+    public int[] search(String query, int limit) {
+        List<String> tokens = tokens(normalize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return NO_IDS;
+        }
+        
+        int[] candidates = candidates(tokens);
+        
+        // Keep only the best `limit` matches; a broad query can match much of the catalog
+        String phrase = String.join(" ", tokens);
+        PriorityQueue<Match> best = new PriorityQueue<>(Math.max(1, Math.min(limit, candidates.length)), BEST_FIRST.reversed());
+        for (int id : candidates) {
+            String text = texts.get(id);
+            if (text == null) {
+                continue;
+            }
+            int rank = rank(text, phrase, tokens);
+            if (rank < 0 || (best.size() == limit && rank > best.peek().rank())) {
+                continue;
+            }
+            Match match = new Match(id, rank, text);
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (BEST_FIRST.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+        
+        int[] ids = new int[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = best.poll().id();
+        }
+        return ids;
+    }
+    
+    /**
+     * Ids of every product that {@link #search} would return for the query, unranked. For
+     * filtering a full product list, where ranking all matches would be wasted work.
+     */
+    public BitSet matches(String query) {
+        BitSet ids = new BitSet();
+        List<String> tokens = tokens(normalize(query));
+        if (tokens.isEmpty()) {
+            return ids;
+        }
+        String phrase = String.join(" ", tokens);
+        for (int id : candidates(tokens)) {
+            String text = texts.get(id);
+            if (text != null && rank(text, phrase, tokens) >= 0) {
+                ids.set(id);
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Tests a product's name and barcode against the query the way {@link #matches} does, for
+     * products that are not in an index.
+     */
+    static BiPredicate<String, String> matcher(String query) {
+        List<String> tokens = tokens(normalize(query));
+        return (name, barcode) -> {
+            if (tokens.isEmpty()) {
+                return false;
+            }
+            String text = String.join("\n", normalize(name), normalize(barcode));
+            for (String token : tokens) {
+                if (!text.contains(token)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+    
+    // Products containing every gram of the query; still to be confirmed against their text
+    private int[] candidates(List<String> tokens) {
+        int[] candidates = null;
+        for (String token : tokens) {
+            if (token.length() < 2) {
+                continue;
+            }
+            for (long gram : queryGrams(token)) {
+                int[] ids = postings.getOrDefault(gram, NO_IDS);
+                candidates = candidates == null ? ids : intersect(candidates, ids);
+                if (candidates.length == 0) {
+                    return NO_IDS;
+                }
+            }
+        }
+        
+        // Single-character queries have no grams to narrow them down; check every product
+        if (candidates == null) {
+            candidates = texts.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+        return candidates;
+    }
+    
+    private void removePosting(long gram, int id) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            int[] next = delete(ids, id);
+            return next.length == 0 ? null : next;
+        });
+    }
+    
+    // 0 = the text starts with the query, 1 = every word matches at a word start,
+    // 2 = matches somewhere, -1 = not a match
+    private static int rank(String text, String phrase, List<String> tokens) {
+        boolean allWordStarts = true;
+        for (String token : tokens) {
+            int at = text.indexOf(token);
+            if (at < 0) {
+                return -1;
+            }
+            if (allWordStarts && !matchesAtWordStart(text, token, at)) {
+                allWordStarts = false;
+            }
+        }
+        if (text.startsWith(phrase)) {
+            return 0;
+        }
+        return allWordStarts ? 1 : 2;
+    }
+    
+    private static boolean matchesAtWordStart(String text, String token, int from) {
+        for (int at = from; at >= 0; at = text.indexOf(token, at + 1)) {
+            if (at == 0 || !Character.isLetterOrDigit(text.charAt(at - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Searchable fields, joined by a newline so no gram or word-start match spans two of them
+    private static String text(Product product) {
+        return String.join("\n", normalize(product.getName()), normalize(product.getBarcode()));
+    }
+    
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : WORD_BREAK.split(text)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    // Sorted and distinct
+    private static long[] grams(String text) {
+        long[] grams = new long[text.length() * 2];
+        int n = 0;
+        for (String word : tokens(text)) {
+            for (int i = 0; i + 2 <= word.length(); i++) {
+                grams[n++] = gram(word, i, 2);
+                if (i + 3 <= word.length()) {
+                    grams[n++] = gram(word, i, 3);
+                }
+            }
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[i] != grams[distinct - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+    
+    // A two-character token is a single bigram; longer ones are covered by their trigrams
+    private static List<Long> queryGrams(String token) {
+        if (token.length() == 2) {
+            return List.of(gram(token, 0, 2));
+        }
+        List<Long> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            grams.add(gram(token, i, 3));
+        }
+        return grams;
+    }
+    
+    private static long gram(String word, int start, int length) {
+        long key = length;
+        for (int i = 0; i < length; i++) {
+            key = (key << 16) | word.charAt(start + i);
+        }
+        return key;
+    }
+    
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+    
+    private static int[] insert(int[] ids, int id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at >= 0) {
+            return ids;
+        }
+        at = -at - 1;
+        int[] next = new int[ids.length + 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        next[at] = id;
+        System.arraycopy(ids, at, next, at + 1, ids.length - at);
+        return next;
+    }
+    
+    private static int[] delete(int[] ids, int id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return ids;
+        }
+        int[] next = new int[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        System.arraycopy(ids, at + 1, next, at, ids.length - at - 1);
+        return next;
+    }
+    
+    private record Match(int id, int rank, String text) {}
+    
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
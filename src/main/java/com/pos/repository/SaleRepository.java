@@ -1,28 +1,46 @@
 package com.pos.repository;
 
 import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.models.Money;
 import com.pos.models.Sale;
 import com.pos.models.SaleItem;
+import com.pos.models.SaleLine;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class SaleRepository {
+    // Stays well under SQLite's bound-parameter limit
+    private static final int MAX_IDS_PER_QUERY = 500;
+    // Rows the driver steps through per fetch on export cursors
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+    
+    @FunctionalInterface
+    public interface SaleLineVisitor {
+        void visit(SaleLine line) throws IOException;
+    }
     
     public List<Sale> findAll() throws SQLException {
         List<Sale> sales = new ArrayList<>();
         String sql = "SELECT * FROM sales ORDER BY sale_date DESC";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
                 sales.add(new Sale(
                     rs.getInt("id"),
-                    rs.getDouble("total_amount"),
+                    Money.ofCents(rs.getLong("total_amount_cents")),
                     rs.getTimestamp("sale_date").toLocalDateTime()
                 ));
             }
@@ -31,10 +49,96 @@ public class SaleRepository {
         return sales;
     }
     
+    /**
+     * Newest sales first; only {@code limit} rows are read.
+     */
+    public List<Sale> findRecent(int limit) throws SQLException {
+        return findPage(null, 0, limit);
+    }
+    
+    /**
+     * Keyset pagination, newest first. Pass the date and id of the last sale on the previous
+     * page, or a null date for the first page. Each page is an index seek, so deep pages cost
+     * the same as the first. Sales come back with their item counts filled in.
+     */
+    public List<Sale> findPage(LocalDateTime afterSaleDate, int afterId, int pageSize) throws SQLException {
+        List<Sale> sales = new ArrayList<>();
+        String sql = afterSaleDate == null
+            ? "SELECT id, total_amount_cents, sale_date FROM sales ORDER BY sale_date DESC, id DESC LIMIT ?"
+            : "SELECT id, total_amount_cents, sale_date FROM sales WHERE (sale_date, id) < (?, ?) ORDER BY sale_date DESC, id DESC LIMIT ?";
+        
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (afterSaleDate != null) {
+                stmt.setTimestamp(index++, Timestamp.valueOf(afterSaleDate));
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index, pageSize);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.add(new Sale(
+                        rs.getInt("id"),
+                        Money.ofCents(rs.getLong("total_amount_cents")),
+                        rs.getTimestamp("sale_date").toLocalDateTime()
+                    ));
+                }
+            }
+            
+            List<Integer> saleIds = sales.stream().map(Sale::getId).toList();
+            Map<Integer, Integer> itemCounts = countItemsBySaleIds(conn, saleIds);
+            for (Sale sale : sales) {
+                sale.setItemCount(itemCounts.getOrDefault(sale.getId(), 0));
+            }
+        }
+        
+        return sales;
+    }
+    
+    /**
+     * Number of line items per sale, for many sales in one GROUP BY query per chunk of ids.
+     * Sales without items are absent from the map.
+     */
+    public Map<Integer, Integer> countItemsBySaleIds(Collection<Integer> saleIds) throws SQLException {
+        if (saleIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            return countItemsBySaleIds(conn, saleIds);
+        }
+    }
+    
+    private Map<Integer, Integer> countItemsBySaleIds(Connection conn, Collection<Integer> saleIds) throws SQLException {
+        Map<Integer, Integer> counts = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(saleIds);
+        
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            String sql = "SELECT sale_id, COUNT(*) FROM sale_items WHERE sale_id IN (" + placeholders + ") GROUP BY sale_id";
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        counts.put(rs.getInt(1), rs.getInt(2));
+                    }
+                }
+            }
+        }
+        
+        return counts;
+    }
+    
     public Sale findById(int id) throws SQLException {
         String sql = "SELECT * FROM sales WHERE id = ?";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, id);
@@ -42,10 +146,11 @@ public class SaleRepository {
                 if (rs.next()) {
                     Sale sale = new Sale(
                         rs.getInt("id"),
-                        rs.getDouble("total_amount"),
+                        Money.ofCents(rs.getLong("total_amount_cents")),
                         rs.getTimestamp("sale_date").toLocalDateTime()
                     );
                     sale.setItems(findSaleItems(id));
+                    sale.setItemCount(sale.getItems().size());
                     return sale;
                 }
             }
@@ -57,27 +162,29 @@ public class SaleRepository {
     public List<SaleItem> findSaleItems(int saleId) throws SQLException {
         List<SaleItem> items = new ArrayList<>();
         String sql = """
-            SELECT si.*, p.name as product_name 
-            FROM sale_items si 
-            JOIN products p ON si.product_id = p.id 
+            SELECT si.*, p.name as product_name, p.image_path as product_image_path
+            FROM sale_items si
+            JOIN products p ON si.product_id = p.id
             WHERE si.sale_id = ?
         """;
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, saleId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    items.add(new SaleItem(
+                    SaleItem item = new SaleItem(
                         rs.getInt("id"),
                         rs.getInt("sale_id"),
                         rs.getInt("product_id"),
                         rs.getString("product_name"),
                         rs.getInt("quantity"),
-                        rs.getDouble("unit_price"),
-                        rs.getDouble("subtotal")
-                    ));
+                        Money.ofCents(rs.getLong("unit_price_cents")),
+                        Money.ofCents(rs.getLong("subtotal_cents"))
+                    );
+                    item.setProductImagePath(rs.getString("product_image_path"));
+                    items.add(item);
                 }
             }
         }
@@ -86,52 +193,56 @@ public class SaleRepository {
     }
     
     public int save(Sale sale) throws SQLException {
-        String sql = "INSERT INTO sales (total_amount, sale_date) VALUES (?, ?)";
+        String sql = "INSERT INTO sales (total_amount_cents, sale_date) VALUES (?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setDouble(1, sale.getTotalAmount());
-            stmt.setTimestamp(2, Timestamp.valueOf(sale.getSaleDate()));
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating sale failed, no rows affected.");
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating sale failed, no ID obtained.");
+        return DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                
+                stmt.setLong(1, sale.getTotalAmount().cents());
+                stmt.setTimestamp(2, Timestamp.valueOf(sale.getSaleDate()));
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating sale failed, no rows affected.");
+                }
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        StatsRepository.saleRecorded(sale.getTotalAmount());
+                        return generatedKeys.getInt(1);
+                    } else {
+                        throw new SQLException("Creating sale failed, no ID obtained.");
+                    }
                 }
             }
-        }
+        });
     }
     
     public void saveSaleItems(int saleId, List<SaleItem> items) throws SQLException {
-        String sql = "INSERT INTO sale_items (sale_id, product_id, quantity, unit_price, subtotal) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO sale_items (sale_id, product_id, quantity, unit_price_cents, subtotal_cents) VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            for (SaleItem item : items) {
-                stmt.setInt(1, saleId);
-                stmt.setInt(2, item.getProductId());
-                stmt.setInt(3, item.getQuantity());
-                stmt.setDouble(4, item.getUnitPrice());
-                stmt.setDouble(5, item.getSubtotal());
-                stmt.addBatch();
+        DatabaseManager.write(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                for (SaleItem item : items) {
+                    stmt.setInt(1, saleId);
+                    stmt.setInt(2, item.getProductId());
+                    stmt.setInt(3, item.getQuantity());
+                    stmt.setLong(4, item.getUnitPrice().cents());
+                    stmt.setLong(5, item.getSubtotal().cents());
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
             }
-            
-            stmt.executeBatch();
-        }
+            return null;
+        });
     }
     
     public int getTotalSalesCount() throws SQLException {
         String sql = "SELECT COUNT(*) FROM sales";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
@@ -139,14 +250,14 @@ public class SaleRepository {
         }
     }
     
-    public double getTotalRevenue() throws SQLException {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) FROM sales";
+    public Money getTotalRevenue() throws SQLException {
+        String sql = "SELECT COALESCE(SUM(total_amount_cents), 0) FROM sales";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
-            return rs.next() ? rs.getDouble(1) : 0.0;
+            return rs.next() ? Money.ofCents(rs.getLong(1)) : Money.ZERO;
         }
     }
     
@@ -154,7 +265,7 @@ public class SaleRepository {
         List<Sale> sales = new ArrayList<>();
         String sql = "SELECT * FROM sales WHERE sale_date BETWEEN ? AND ? ORDER BY sale_date DESC";
         
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = DatabaseManager.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setTimestamp(1, Timestamp.valueOf(startDate));
@@ -164,7 +275,7 @@ public class SaleRepository {
                 while (rs.next()) {
                     sales.add(new Sale(
                         rs.getInt("id"),
-                        rs.getDouble("total_amount"),
+                        Money.ofCents(rs.getLong("total_amount_cents")),
                         rs.getTimestamp("sale_date").toLocalDateTime()
                     ));
                 }
@@ -173,4 +284,93 @@ public class SaleRepository {
         
         return sales;
     }
+    
+    /**
+     * Streams every line item of the sales dated from {@code startDate} (inclusive) to
+     * {@code endDate} (exclusive), oldest first, through a forward-only cursor. Rows are handed
+     * to the visitor as they are read and never collected, so memory use does not grow with
+     * the size of the range. Returns the number of lines visited.
+     */
+    public long forEachSaleLine(LocalDateTime startDate, LocalDateTime endDate, SaleLineVisitor visitor)
+            throws SQLException, IOException {
+        String sql = """
+            SELECT s.id as sale_id, s.sale_date, s.total_amount_cents,
+                   si.id as item_id, si.product_id, p.name as product_name,
+                   si.quantity, si.unit_price_cents, si.subtotal_cents
+            FROM sales s
+            JOIN sale_items si ON si.sale_id = s.id
+            LEFT JOIN products p ON p.id = si.product_id
+            WHERE s.sale_date >= ? AND s.sale_date < ?
+            ORDER BY s.sale_date, s.id, si.id
+        """;
+        
+        long lines = 0;
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(EXPORT_FETCH_SIZE);
+            stmt.setTimestamp(1, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(new SaleLine(
+                        rs.getInt("sale_id"),
+                        rs.getTimestamp("sale_date").toLocalDateTime(),
+                        Money.ofCents(rs.getLong("total_amount_cents")),
+                        rs.getInt("item_id"),
+                        rs.getInt("product_id"),
+                        rs.getString("product_name"),
+                        rs.getInt("quantity"),
+                        Money.ofCents(rs.getLong("unit_price_cents")),
+                        Money.ofCents(rs.getLong("subtotal_cents"))
+                    ));
+                    lines++;
+                }
+            }
+        }
+        
+        return lines;
+    }
+    
+    // Async variants for UI code: run on DbExecutor, never on the JavaFX Application Thread
+    public CompletableFuture<List<Sale>> findAllAsync() {
+        return DbExecutor.supply(this::findAll);
+    }
+    
+    public CompletableFuture<List<Sale>> findRecentAsync(int limit) {
+        return DbExecutor.supply(() -> findRecent(limit));
+    }
+    
+    public CompletableFuture<List<Sale>> findPageAsync(LocalDateTime afterSaleDate, int afterId, int pageSize) {
+        return DbExecutor.supply(() -> findPage(afterSaleDate, afterId, pageSize));
+    }
+    
+    public CompletableFuture<Map<Integer, Integer>> countItemsBySaleIdsAsync(Collection<Integer> saleIds) {
+        List<Integer> ids = List.copyOf(saleIds);
+        return DbExecutor.supply(() -> countItemsBySaleIds(ids));
+    }
+    
+    public CompletableFuture<Sale> findByIdAsync(int id) {
+        return DbExecutor.supply(() -> findById(id));
+    }
+    
+    public CompletableFuture<List<SaleItem>> findSaleItemsAsync(int saleId) {
+        return DbExecutor.supply(() -> findSaleItems(saleId));
+    }
+    
+    public CompletableFuture<Integer> saveAsync(Sale sale) {
+        return DbExecutor.supply(() -> save(sale));
+    }
+    
+    public CompletableFuture<Integer> getTotalSalesCountAsync() {
+        return DbExecutor.supply(this::getTotalSalesCount);
+    }
+    
+    public CompletableFuture<Money> getTotalRevenueAsync() {
+        return DbExecutor.supply(this::getTotalRevenue);
+    }
+    
+    public CompletableFuture<List<Sale>> findByDateRangeAsync(LocalDateTime startDate, LocalDateTime endDate) {
+        return DbExecutor.supply(() -> findByDateRange(startDate, endDate));
+    }
 }
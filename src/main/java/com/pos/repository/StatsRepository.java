@@ -0,0 +1,125 @@
+package com.pos.repository;
+
+import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.models.DashboardStats;
+import com.pos.models.Money;
+
+import java.sql.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard figures kept as in-memory counters. They are seeded once from a single
+ * aggregate query and then maintained by the repository write paths after each commit,
+ * so reading them costs the same no matter how large the catalog or sales history grows.
+ */
+public class StatsRepository {
+    private static final LongAdder productCount = new LongAdder();
+    private static final LongAdder categoryCount = new LongAdder();
+    private static final LongAdder saleCount = new LongAdder();
+    private static final LongAdder revenueCents = new LongAdder();
+    
+    // Written only on the writer thread, so seeding and counter updates never interleave
+    private static volatile boolean seeded;
+    
+    public DashboardStats getDashboardStats() throws SQLException {
+        if (!seeded) {
+            seed();
+        }
+        return new DashboardStats(productCount.sum(), categoryCount.sum(), saleCount.sum(),
+            Money.ofCents(revenueCents.sum()));
+    }
+    
+    /**
+     * Recomputes every figure from the database in one statement.
+     */
+    public DashboardStats queryDashboardStats() throws SQLException {
+        try (Connection conn = DatabaseManager.getReadConnection()) {
+            return queryDashboardStats(conn);
+        }
+    }
+    
+    /**
+     * Drops the counters so the next read re-seeds them, e.g. after bulk changes made
+     * outside the repositories.
+     */
+    public void invalidate() throws SQLException {
+        DatabaseManager.write(conn -> {
+            seeded = false;
+            return null;
+        });
+    }
+    
+    private static DashboardStats queryDashboardStats(Connection conn) throws SQLException {
+        String sql = """
+            SELECT (SELECT COUNT(*) FROM products),
+                   (SELECT COUNT(*) FROM categories),
+                   (SELECT COUNT(*) FROM sales),
+                   (SELECT COALESCE(SUM(total_amount_cents), 0) FROM sales)
+        """;
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            rs.next();
+            return new DashboardStats(rs.getLong(1), rs.getLong(2), rs.getLong(3), Money.ofCents(rs.getLong(4)));
+        }
+    }
+    
+    private static void seed() throws SQLException {
+        // Seeding on the writer thread means no commit can land between the query and the reset
+        DatabaseManager.write(conn -> {
+            if (seeded) {
+                return null;
+            }
+            DashboardStats stats = queryDashboardStats(conn);
+            productCount.reset();
+            productCount.add(stats.productCount());
+            categoryCount.reset();
+            categoryCount.add(stats.categoryCount());
+            saleCount.reset();
+            saleCount.add(stats.saleCount());
+            revenueCents.reset();
+            revenueCents.add(stats.totalRevenue().cents());
+            seeded = true;
+            return null;
+        });
+    }
+    
+    // Called by the repositories from inside their writes; applied only once the change commits
+    static void productsChanged(int delta) throws SQLException {
+        DatabaseManager.onCommit(() -> {
+            if (seeded) {
+                productCount.add(delta);
+            }
+        });
+    }
+    
+    static void categoriesChanged(int delta) throws SQLException {
+        DatabaseManager.onCommit(() -> {
+            if (seeded) {
+                categoryCount.add(delta);
+            }
+        });
+    }
+    
+    static void saleRecorded(Money totalAmount) throws SQLException {
+        long cents = totalAmount.cents();
+        DatabaseManager.onCommit(() -> {
+            if (seeded) {
+                saleCount.increment();
+                revenueCents.add(cents);
+            }
+        });
+    }
+    
+    // Async variants for UI code: run on DbExecutor, never on the JavaFX Application Thread
+    public CompletableFuture<DashboardStats> getDashboardStatsAsync() {
+        return DbExecutor.supply(this::getDashboardStats);
+    }
+    
+    public CompletableFuture<DashboardStats> queryDashboardStatsAsync() {
+        return DbExecutor.supply(this::queryDashboardStats);
+    }
+}
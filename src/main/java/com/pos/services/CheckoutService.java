@@ -0,0 +1,91 @@
+package com.pos.services;
+
+import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.events.DomainEvent.SaleRecorded;
+import com.pos.events.EventBus;
+import com.pos.models.Money;
+import com.pos.models.Sale;
+import com.pos.models.SaleItem;
+import com.pos.repository.InsufficientStockException;
+import com.pos.repository.ProductRepository;
+import com.pos.repository.SaleRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Records a sale, its line items and the stock decrements as a single transaction, so a
+ * sale is either fully booked or not at all and two tills can never oversell a product.
+ */
+public class CheckoutService {
+    private final SaleRepository saleRepository;
+    private final ProductRepository productRepository;
+    private final EventBus events = EventBus.getInstance();
+    
+    public CheckoutService() {
+        this(new SaleRepository(), new ProductRepository());
+    }
+    
+    public CheckoutService(SaleRepository saleRepository, ProductRepository productRepository) {
+        this.saleRepository = saleRepository;
+        this.productRepository = productRepository;
+    }
+    
+    /**
+     * @throws InsufficientStockException if any line is no longer covered by stock; nothing is written
+     */
+    public Sale checkout(List<SaleItem> cartItems) throws SQLException {
+        if (cartItems.isEmpty()) {
+            throw new IllegalArgumentException("Cannot check out an empty cart");
+        }
+        
+        List<SaleItem> items = copyLines(cartItems);
+        // Exact cents throughout: no boxing per line, no float rounding
+        long totalCents = 0;
+        for (SaleItem item : items) {
+            totalCents = Math.addExact(totalCents, item.getSubtotal().cents());
+        }
+        Sale sale = new Sale(Money.ofCents(totalCents));
+        
+        return DatabaseManager.transaction(conn -> {
+            int saleId = saleRepository.save(sale);
+            for (SaleItem item : items) {
+                item.setSaleId(saleId);
+            }
+            saleRepository.saveSaleItems(saleId, items);
+            productRepository.decrementStock(items);
+            
+            sale.setId(saleId);
+            sale.setItems(items);
+            sale.setItemCount(items.size());
+            
+            Sale recorded = new Sale(saleId, sale.getTotalAmount(), sale.getSaleDate());
+            recorded.setItems(List.copyOf(items));
+            recorded.setItemCount(items.size());
+            events.publishOnCommit(new SaleRecorded(recorded));
+            return sale;
+        });
+    }
+    
+    public CompletableFuture<Sale> checkoutAsync(List<SaleItem> cartItems) {
+        // Snapshot on the caller's thread; the cart list and its observable items belong to the UI
+        List<SaleItem> items = copyLines(cartItems);
+        return DbExecutor.supply(() -> checkout(items));
+    }
+    
+    // Fresh items with the subtotal recomputed from price and quantity; the sale is saved from
+    // these, never from the caller's own objects
+    private static List<SaleItem> copyLines(List<SaleItem> cartItems) {
+        List<SaleItem> items = new ArrayList<>(cartItems.size());
+        for (SaleItem cartItem : cartItems) {
+            SaleItem item = new SaleItem(cartItem.getProductId(), cartItem.getProductName(),
+                cartItem.getQuantity(), cartItem.getUnitPrice());
+            item.setProductImagePath(cartItem.getProductImagePath());
+            items.add(item);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,200 @@
+package com.pos.services;
+
+import com.pos.models.SaleLine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes sale lines in a compact column-oriented binary format. Lines are buffered in blocks
+ * of {@value #BLOCK_ROWS}; each full block is encoded column by column and written out, so
+ * memory use is bounded by one block whatever the export size.
+ *
+ * <p>Layout: the magic bytes {@code POSX}, a format version byte ({@value #VERSION}), then
+ * blocks. A block is a varint row count followed by nine columns, each a varint byte length
+ * and its data, so readers can skip the columns they do not need. A row count of 0 ends the file.
+ * Columns, in order:
+ * <ol>
+ *   <li>sale id, zigzag varint delta from the previous row in the block</li>
+ *   <li>sale date, epoch milliseconds (the local date-time taken as UTC), zigzag varint delta</li>
+ *   <li>sale total in cents, zigzag varint</li>
+ *   <li>item id, zigzag varint delta</li>
+ *   <li>product id, zigzag varint</li>
+ *   <li>product name: varint dictionary size, the names as varint length plus UTF-8 bytes,
+ *       then a varint per row indexing the dictionary from 1, with 0 meaning null</li>
+ *   <li>quantity, zigzag varint</li>
+ *   <li>unit price in cents, zigzag varint</li>
+ *   <li>subtotal in cents, zigzag varint</li>
+ * </ol>
+ */
+final class ColumnarSalesWriter {
+    static final int BLOCK_ROWS = 8_192;
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = {'P', 'O', 'S', 'X'};
+    
+    private final WritableByteChannel channel;
+    private final long[] saleIds = new long[BLOCK_ROWS];
+    private final long[] saleDates = new long[BLOCK_ROWS];
+    private final long[] saleTotals = new long[BLOCK_ROWS];
+    private final long[] itemIds = new long[BLOCK_ROWS];
+    private final long[] productIds = new long[BLOCK_ROWS];
+    private final String[] productNames = new String[BLOCK_ROWS];
+    private final long[] quantities = new long[BLOCK_ROWS];
+    private final long[] unitPrices = new long[BLOCK_ROWS];
+    private final long[] subtotals = new long[BLOCK_ROWS];
+    private int rows;
+    private boolean started;
+    
+    // Reused for every block
+    private final Bytes block = new Bytes();
+    private final Bytes column = new Bytes();
+    
+    ColumnarSalesWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+    
+    void add(SaleLine line) throws IOException {
+        saleIds[rows] = line.saleId();
+        saleDates[rows] = line.saleDate().toInstant(ZoneOffset.UTC).toEpochMilli();
+        saleTotals[rows] = line.saleTotal().cents();
+        itemIds[rows] = line.itemId();
+        productIds[rows] = line.productId();
+        productNames[rows] = line.productName();
+        quantities[rows] = line.quantity();
+        unitPrices[rows] = line.unitPrice().cents();
+        subtotals[rows] = line.subtotal().cents();
+        if (++rows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+    
+    /**
+     * Writes the last partial block and the end marker. The channel is left open.
+     */
+    void finish() throws IOException {
+        flushBlock();
+        block.reset();
+        block.writeVarLong(0);
+        block.drainTo(channel);
+    }
+    
+    private void flushBlock() throws IOException {
+        block.reset();
+        if (!started) {
+            block.write(MAGIC, 0, MAGIC.length);
+            block.writeVarLong(VERSION);
+            started = true;
+        }
+        if (rows == 0) {
+            block.drainTo(channel);
+            return;
+        }
+        
+        block.writeVarLong(rows);
+        writeColumn(saleIds, true);
+        writeColumn(saleDates, true);
+        writeColumn(saleTotals, false);
+        writeColumn(itemIds, true);
+        writeColumn(productIds, false);
+        writeNames();
+        writeColumn(quantities, false);
+        writeColumn(unitPrices, false);
+        writeColumn(subtotals, false);
+        block.drainTo(channel);
+        
+        Arrays.fill(productNames, 0, rows, null);
+        rows = 0;
+    }
+    
+    private void writeColumn(long[] values, boolean delta) {
+        column.reset();
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            column.writeVarLong(zigzag(delta ? values[i] - previous : values[i]));
+            previous = values[i];
+        }
+        appendColumn();
+    }
+    
+    private void writeNames() {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] indexes = new int[rows];
+        column.reset();
+        Bytes names = new Bytes();
+        for (int i = 0; i < rows; i++) {
+            String name = productNames[i];
+            if (name == null) {
+                continue;
+            }
+            Integer index = dictionary.get(name);
+            if (index == null) {
+                index = dictionary.size() + 1;
+                dictionary.put(name, index);
+                byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+                names.writeVarLong(utf8.length);
+                names.write(utf8, 0, utf8.length);
+            }
+            indexes[i] = index;
+        }
+        column.writeVarLong(dictionary.size());
+        column.write(names.data, 0, names.size);
+        for (int i = 0; i < rows; i++) {
+            column.writeVarLong(indexes[i]);
+        }
+        appendColumn();
+    }
+    
+    private void appendColumn() {
+        block.writeVarLong(column.size);
+        block.write(column.data, 0, column.size);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    // Growable byte array with LEB128 varints
+    private static final class Bytes {
+        private byte[] data = new byte[64 * 1024];
+        private int size;
+        
+        void reset() {
+            size = 0;
+        }
+        
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+        
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, data, size, length);
+            size += length;
+        }
+        
+        void drainTo(WritableByteChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, size);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            size = 0;
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+            }
+        }
+    }
+}
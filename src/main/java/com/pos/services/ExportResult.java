@@ -0,0 +1,15 @@
+package com.pos.services;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a sales export.
+ */
+public record ExportResult(Path file, long lines, long sales, long bytes, long elapsedMillis) {
+    
+    @Override
+    public String toString() {
+        return String.format("%d line items from %d sales exported (%,d bytes) in %.1f s",
+            lines, sales, bytes, elapsedMillis / 1000.0);
+    }
+}
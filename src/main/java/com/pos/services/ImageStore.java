@@ -0,0 +1,244 @@
+package com.pos.services;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Content-addressed copies of product images under {@code pos.images.dir} (default
+ * {@code pos-images} in the working directory):
+ *
+ * <pre>
+ * originals/&lt;sha-256&gt;.&lt;ext&gt;    byte-for-byte copy of the chosen file
+ * thumbnails/&lt;sha-256&gt;.png     fits in {@value #THUMBNAIL_SIZE} x {@value #THUMBNAIL_SIZE}
+ * </pre>
+ *
+ * Products point at the stored original, so they no longer depend on the file the user picked
+ * staying where it was, and the same picture chosen for many products is stored once. Tables
+ * show the thumbnail, a few KB, instead of decoding the original on every render. Stored files
+ * are never modified: a different picture is a different hash.
+ */
+public final class ImageStore {
+    public static final int THUMBNAIL_SIZE = 128;
+    
+    private static final ImageStore INSTANCE = new ImageStore(Path.of(System.getProperty("pos.images.dir", "pos-images")));
+    
+    private final Path originals;
+    private final Path thumbnails;
+    // One worker: copies and thumbnails are disk-bound, and saves stay in submission order
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "pos-image-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private ImageStore(Path root) {
+        Path absolute = root.toAbsolutePath().normalize();
+        this.originals = absolute.resolve("originals");
+        this.thumbnails = absolute.resolve("thumbnails");
+    }
+    
+    public static ImageStore getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Copies the image into the store unless identical bytes are already there, queues its
+     * thumbnail and returns the stored path. Images already in the store come back unchanged.
+     */
+    public Path store(Path image) throws IOException {
+        if (isStored(image)) {
+            return image;
+        }
+        
+        Files.createDirectories(originals);
+        Path temp = Files.createTempFile(originals, "import-", ".part");
+        try {
+            String hash;
+            try (InputStream in = Files.newInputStream(image);
+                 DigestOutputStream out = new DigestOutputStream(Files.newOutputStream(temp), sha256())) {
+                in.transferTo(out);
+                hash = HexFormat.of().formatHex(out.getMessageDigest().digest());
+            }
+            
+            Path stored = originals.resolve(hash + extension(image));
+            if (!Files.exists(stored)) {
+                try {
+                    Files.move(temp, stored, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Another save stored the same bytes first; theirs is identical
+                }
+            }
+            worker.execute(() -> ensureThumbnail(hash, stored));
+            return stored;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * {@link #store(Path)} on the store's worker thread. A null or blank path completes with
+     * null, i.e. no image.
+     */
+    public CompletableFuture<String> storeAsync(String imagePath) {
+        if (imagePath == null || imagePath.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return store(Path.of(imagePath.trim())).toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, worker);
+    }
+    
+    /**
+     * Whether {@code imagePath} is a stored original, and so never changes. Looks at the path
+     * only, without touching the disk.
+     */
+    public boolean isStored(String imagePath) {
+        try {
+            return isStored(Path.of(imagePath));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * The file to draw when showing {@code imagePath} small: the generated thumbnail for a
+     * stored image once it exists, otherwise the image itself.
+     */
+    public String previewPath(String imagePath) {
+        Path path;
+        try {
+            path = Path.of(imagePath);
+        } catch (InvalidPathException e) {
+            return imagePath;
+        }
+        if (!isStored(path)) {
+            return imagePath;
+        }
+        Path thumbnail = thumbnails.resolve(hashOf(path) + ".png");
+        return Files.isRegularFile(thumbnail) ? thumbnail.toString() : imagePath;
+    }
+    
+    private boolean isStored(Path image) {
+        return originals.equals(image.toAbsolutePath().normalize().getParent());
+    }
+    
+    private void ensureThumbnail(String hash, Path original) {
+        Path thumbnail = thumbnails.resolve(hash + ".png");
+        if (Files.exists(thumbnail)) {
+            return;
+        }
+        try {
+            BufferedImage image = readForThumbnail(original);
+            if (image == null) {
+                // No ImageIO reader for the format; tables fall back to the original
+                return;
+            }
+            Files.createDirectories(thumbnails);
+            Path temp = Files.createTempFile(thumbnails, hash, ".part");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    ImageIO.write(scaleToFit(image, THUMBNAIL_SIZE), "png", out);
+                }
+                Files.move(temp, thumbnail, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not create thumbnail for " + original + ": " + e.getMessage());
+        }
+    }
+    
+    // Decodes every n-th pixel of large images, so a 12 MP photo never needs its full raster in memory
+    private static BufferedImage readForThumbnail(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int shortSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, shortSide / (THUMBNAIL_SIZE * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    // Halves the image until it is within 2x of the target, then one bilinear step; a single
+    // large bilinear step would skip most source pixels and alias
+    private static BufferedImage scaleToFit(BufferedImage image, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        
+        BufferedImage current = image;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width > targetWidth || height > targetHeight);
+        return current;
+    }
+    
+    private static String hashOf(Path stored) {
+        String name = stored.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+    
+    private static String extension(Path image) {
+        String name = image.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot).toLowerCase(Locale.ROOT);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
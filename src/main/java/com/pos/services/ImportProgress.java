@@ -0,0 +1,14 @@
+package com.pos.services;
+
+/**
+ * A progress report from a running product import.
+ */
+public record ImportProgress(long rowsRead, long imported, long rejected, long bytesRead, long totalBytes) {
+    
+    /**
+     * Share of the file consumed so far, from 0 to 1.
+     */
+    public double fraction() {
+        return totalBytes <= 0 ? 0.0 : Math.min(1.0, (double) bytesRead / totalBytes);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pos.services;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a product import. {@code rejectsFile} is null when every row was imported.
+ */
+public record ImportResult(long imported, long rejected, Path rejectsFile, long elapsedMillis) {
+    
+    @Override
+    public String toString() {
+        return String.format("%d products imported, %d rows rejected in %.1f s", imported, rejected, elapsedMillis / 1000.0);
+    }
+}
@@ -0,0 +1,295 @@
+package com.pos.services;
+
+import com.pos.database.DatabaseManager;
+import com.pos.database.DbExecutor;
+import com.pos.events.DomainEvent.ProductsReloaded;
+import com.pos.events.EventBus;
+import com.pos.models.Category;
+import com.pos.models.Money;
+import com.pos.models.Product;
+import com.pos.repository.CategoryRepository;
+import com.pos.repository.ProductRepository;
+import com.pos.utils.CsvReader;
+import com.pos.utils.CsvWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Bulk product import from CSV. The file is streamed a row at a time, valid rows are inserted
+ * in large batches with one transaction per batch, and rows that cannot be imported are
+ * copied to {@code <file>.rejects.csv} with the reason, ready to be fixed and imported again.
+ *
+ * <p>The header names the columns, in any order: {@code name}, {@code category},
+ * {@code price} and {@code stock} are required, {@code barcode} and {@code image_path} are
+ * optional and anything else is ignored. Categories must already exist and are matched by name.
+ */
+public class ProductImportService {
+    /** Rows per transaction; overridable with {@code -Dpos.import.batchSize=...}. */
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("pos.import.batchSize", 5_000));
+    
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "category", "price", "stock");
+    private static final Map<String, String> COLUMN_ALIASES = Map.of(
+        "stock_quantity", "stock",
+        "category_name", "category",
+        "sku", "barcode",
+        "image", "image_path");
+    
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    
+    public ProductImportService() {
+        this(new ProductRepository(), new CategoryRepository());
+    }
+    
+    public ProductImportService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+    }
+    
+    /**
+     * Imports the file, reporting progress after every batch on the calling thread.
+     *
+     * @throws IOException if the file cannot be read or its header lacks a required column
+     */
+    public ImportResult importCsv(Path file, Consumer<ImportProgress> onProgress) throws IOException, SQLException {
+        long started = System.nanoTime();
+        long totalBytes = Files.size(file);
+        Path rejectsFile = file.resolveSibling(file.getFileName() + ".rejects.csv");
+        Files.deleteIfExists(rejectsFile);
+        
+        long imported = 0;
+        boolean inserting = false;
+        try (CountingInputStream counted = new CountingInputStream(Files.newInputStream(file));
+             CsvReader reader = new CsvReader(new InputStreamReader(counted, StandardCharsets.UTF_8));
+             Rejects rejects = new Rejects(rejectsFile)) {
+            
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty");
+            }
+            Columns columns = Columns.of(header);
+            rejects.header = header;
+            
+            // Supplier files repeat a handful of category names; look each one up only once
+            Map<String, Category> categories = new HashMap<>();
+            List<Row> batch = new ArrayList<>(Math.min(BATCH_SIZE, 10_000));
+            long rowsRead = 0;
+            
+            List<String> fields;
+            while ((fields = reader.readRecord()) != null) {
+                rowsRead++;
+                long line = reader.getRecordLine();
+                try {
+                    batch.add(new Row(line, fields, toProduct(fields, columns, categories)));
+                } catch (InvalidRowException e) {
+                    rejects.add(line, fields, e.getMessage());
+                }
+                
+                if (batch.size() == BATCH_SIZE) {
+                    inserting = true;
+                    imported += insert(batch, columns, rejects);
+                    onProgress.accept(new ImportProgress(rowsRead, imported, rejects.count, counted.count, totalBytes));
+                }
+            }
+            inserting |= !batch.isEmpty();
+            imported += insert(batch, columns, rejects);
+            onProgress.accept(new ImportProgress(rowsRead, imported, rejects.count, totalBytes, totalBytes));
+            
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            return new ImportResult(imported, rejects.count, rejects.count > 0 ? rejectsFile : null, elapsedMillis);
+        } finally {
+            // One event for the whole import, even one that failed after some batches
+            // committed, so open product lists reload once instead of once per batch
+            if (inserting) {
+                EventBus.getInstance().publish(new ProductsReloaded((int) Math.min(imported, Integer.MAX_VALUE)));
+            }
+        }
+    }
+    
+    public CompletableFuture<ImportResult> importCsvAsync(Path file, Consumer<ImportProgress> onProgress) {
+        return DbExecutor.supply(() -> {
+            try {
+                return importCsv(file, onProgress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    // One transaction for the whole batch; rows the database skipped go to the rejects file
+    private long insert(List<Row> batch, Columns columns, Rejects rejects) throws IOException, SQLException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Product> products = batch.stream().map(Row::product).toList();
+        int[] counts = DatabaseManager.transaction(conn -> productRepository.saveAll(products));
+        
+        long inserted = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted++;
+            } else {
+                Row row = batch.get(i);
+                rejects.add(row.line(), row.fields(), "barcode '" + columns.get(row.fields(), "barcode") + "' is already in use");
+            }
+        }
+        batch.clear();
+        return inserted;
+    }
+    
+    private Product toProduct(List<String> fields, Columns columns, Map<String, Category> categories)
+            throws InvalidRowException, SQLException {
+        String name = columns.get(fields, "name");
+        if (name.isEmpty()) {
+            throw new InvalidRowException("name is required");
+        }
+        
+        String categoryName = columns.get(fields, "category");
+        if (!categories.containsKey(categoryName)) {
+            categories.put(categoryName, categoryName.isEmpty() ? null : categoryRepository.findByName(categoryName));
+        }
+        Category category = categories.get(categoryName);
+        if (category == null) {
+            throw new InvalidRowException("unknown category '" + categoryName + "'");
+        }
+        
+        Money price;
+        int stock;
+        try {
+            price = Money.parse(columns.get(fields, "price"));
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException("invalid price '" + columns.get(fields, "price") + "'");
+        }
+        try {
+            stock = Integer.parseInt(columns.get(fields, "stock"));
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException("invalid stock '" + columns.get(fields, "stock") + "'");
+        }
+        if (!price.isPositive()) {
+            throw new InvalidRowException("price must be greater than 0");
+        }
+        if (stock < 0) {
+            throw new InvalidRowException("stock cannot be negative");
+        }
+        
+        String imagePath = columns.get(fields, "image_path");
+        Product product = new Product(name, category.getId(), price, stock, imagePath.isEmpty() ? null : imagePath);
+        product.setBarcode(columns.get(fields, "barcode"));
+        return product;
+    }
+    
+    private record Row(long line, List<String> fields, Product product) {}
+    
+    // Header name to field position
+    private record Columns(Map<String, Integer> positions) {
+        
+        static Columns of(List<String> header) throws IOException {
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+                positions.putIfAbsent(COLUMN_ALIASES.getOrDefault(name, name), i);
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!positions.containsKey(required)) {
+                    throw new IOException("Missing required column '" + required + "'; expected "
+                        + String.join(", ", REQUIRED_COLUMNS) + " and optionally barcode, image_path");
+                }
+            }
+            return new Columns(positions);
+        }
+        
+        // Trimmed value, or "" when the column is absent or the row is short
+        String get(List<String> fields, String column) {
+            Integer position = positions.get(column);
+            return position == null || position >= fields.size() ? "" : fields.get(position).trim();
+        }
+    }
+    
+    // Opened on the first rejected row, so a clean import leaves no file behind
+    private static final class Rejects implements Closeable {
+        private final Path file;
+        private List<String> header;
+        private CsvWriter writer;
+        private long count;
+        
+        private Rejects(Path file) {
+            this.file = file;
+        }
+        
+        void add(long line, List<String> fields, String reason) throws IOException {
+            if (writer == null) {
+                BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer = new CsvWriter(out);
+                List<String> columns = new ArrayList<>(header);
+                columns.add("error");
+                writer.writeRecord(columns);
+            }
+            List<String> record = new ArrayList<>(fields);
+            while (record.size() < header.size()) {
+                record.add("");
+            }
+            record.add("line " + line + ": " + reason);
+            writer.writeRecord(record);
+            count++;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+    
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+        
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+    
+    private static final class InvalidRowException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        private InvalidRowException(String message) {
+            // Rejected rows are expected; skip the stack trace
+            super(message, null, false, false);
+        }
+    }
+}
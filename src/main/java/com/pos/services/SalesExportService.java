@@ -0,0 +1,154 @@
+package com.pos.services;
+
+import com.pos.database.DbExecutor;
+import com.pos.models.SaleLine;
+import com.pos.repository.SaleRepository;
+import com.pos.utils.CsvWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Exports the sales of a date range, one row per line item, for accounting. Rows stream from
+ * a database cursor straight into a buffered file channel, so an export of any size runs in
+ * constant memory. Files are written under a temporary name and moved into place once
+ * complete, so a failed export never leaves a truncated file behind.
+ */
+public class SalesExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    public enum Format {
+        CSV("csv", "CSV"),
+        // See ColumnarSalesWriter for the layout
+        COLUMNAR("posx", "Binary columnar");
+        
+        private final String extension;
+        private final String label;
+        
+        Format(String extension, String label) {
+            this.extension = extension;
+            this.label = label;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    private final SaleRepository saleRepository;
+    
+    public SalesExportService() {
+        this(new SaleRepository());
+    }
+    
+    public SalesExportService(SaleRepository saleRepository) {
+        this.saleRepository = saleRepository;
+    }
+    
+    /**
+     * Exports the sales dated from {@code startDate} (inclusive) to {@code endDate} (exclusive).
+     */
+    public ExportResult export(LocalDateTime startDate, LocalDateTime endDate, Format format, Path target)
+            throws IOException, SQLException {
+        long started = System.nanoTime();
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        
+        SaleCounter sales = new SaleCounter();
+        long lines;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (format == Format.CSV) {
+                    lines = writeCsv(startDate, endDate, channel, sales);
+                } else {
+                    lines = writeColumnar(startDate, endDate, channel, sales);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new ExportResult(target, lines, sales.count, Files.size(target), elapsedMillis);
+    }
+    
+    public CompletableFuture<ExportResult> exportAsync(LocalDateTime startDate, LocalDateTime endDate,
+                                                       Format format, Path target) {
+        return DbExecutor.supply(() -> {
+            try {
+                return export(startDate, endDate, format, target);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private long writeCsv(LocalDateTime startDate, LocalDateTime endDate, FileChannel channel, SaleCounter sales)
+            throws IOException, SQLException {
+        Writer out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+        CsvWriter csv = new CsvWriter(out);
+        csv.writeRecord("sale_id", "sale_date", "sale_total", "item_id", "product_id", "product_name",
+            "quantity", "unit_price", "subtotal");
+        
+        long lines = saleRepository.forEachSaleLine(startDate, endDate, line -> {
+            sales.visit(line);
+            csv.writeRecord(
+                Integer.toString(line.saleId()),
+                line.saleDate().toString(),
+                line.saleTotal().toString(),
+                Integer.toString(line.itemId()),
+                Integer.toString(line.productId()),
+                line.productName(),
+                Integer.toString(line.quantity()),
+                line.unitPrice().toString(),
+                line.subtotal().toString());
+        });
+        // Flush only; the channel is closed by the caller after it is forced to disk
+        csv.flush();
+        return lines;
+    }
+    
+    private long writeColumnar(LocalDateTime startDate, LocalDateTime endDate, FileChannel channel, SaleCounter sales)
+            throws IOException, SQLException {
+        ColumnarSalesWriter columnar = new ColumnarSalesWriter(channel);
+        long lines = saleRepository.forEachSaleLine(startDate, endDate, line -> {
+            sales.visit(line);
+            columnar.add(line);
+        });
+        columnar.finish();
+        return lines;
+    }
+    
+    // Lines arrive grouped by sale, so a change of id marks the next sale
+    private static final class SaleCounter {
+        private long count;
+        private int lastSaleId = -1;
+        
+        void visit(SaleLine line) {
+            if (line.saleId() != lastSaleId) {
+                lastSaleId = line.saleId();
+                count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pos.services;
+
+public record ThumbnailMetrics(
+    int cachedThumbnails,
+    long cachedBytes,
+    long maxBytes,
+    int softThumbnails,
+    long hits,
+    long softHits,
+    long misses,
+    long loads,
+    long failures,
+    long evictions
+) {
+    public double hitRate() {
+        long lookups = hits + softHits + misses;
+        return lookups == 0 ? 0.0 : (double) (hits + softHits) / lookups;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(
+            "thumbnails: %d cached (%d/%d KB), %d soft, %d hits, %d soft hits, %d misses (%.1f%% hit rate), %d loads, %d failed, %d evictions",
+            cachedThumbnails, cachedBytes / 1024, maxBytes / 1024, softThumbnails, hits, softHits, misses,
+            hitRate() * 100, loads, failures, evictions);
+    }
+}
@@ -0,0 +1,252 @@
+package com.pos.services;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Product image thumbnails for table cells. Images are decoded off the JavaFX Application
+ * Thread and at the size they are shown at, so a 12 MP photo costs a few KB rather than ~50 MB
+ * of pixels. Images kept in the {@link ImageStore} are drawn from their stored thumbnail once it
+ * exists. Thumbnails are keyed by path and size, so a cached one is served without touching the
+ * disk; files are only looked at on the loader threads. Stored images never change. Any other
+ * file is re-checked in the background at most every few seconds once shown, and if it was
+ * replaced on disk the new picture is loaded on its next render.
+ *
+ * <p>Recently used thumbnails are held strongly up to {@code pos.thumbnails.maxBytes} of
+ * decoded pixels. Beyond that the least recently used ones are only softly reachable: they
+ * are still served if the GC has not needed the memory, and reloaded otherwise.
+ */
+public final class ThumbnailService {
+    private static final ThumbnailService INSTANCE = new ThumbnailService(
+        Long.getLong("pos.thumbnails.maxBytes", 32L * 1024 * 1024),
+        Integer.getInteger("pos.thumbnails.threads", 2));
+    
+    // Cost charged for a file that is missing or cannot be decoded, so it is not retried on every scroll
+    private static final long MISSING_COST = 64;
+    private static final long RECHECK_NANOS = TimeUnit.SECONDS.toNanos(5);
+    
+    private final long maxBytes;
+    private final ExecutorService loader;
+    
+    // Access order: the eldest entry is the least recently used
+    private final LinkedHashMap<Key, Entry> strong = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, SoftEntry> soft = new HashMap<>();
+    private final ReferenceQueue<Image> collected = new ReferenceQueue<>();
+    private final Map<Key, CompletableFuture<Image>> loading = new HashMap<>();
+    private long strongBytes;
+    
+    private long hits;
+    private long softHits;
+    private long misses;
+    private long loads;
+    private long failures;
+    private long evictions;
+    
+    private ThumbnailService(long maxBytes, int threads) {
+        this.maxBytes = maxBytes;
+        AtomicInteger count = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "pos-thumbnails-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static ThumbnailService getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * The image at {@code path} scaled to fit {@code width} x {@code height}, keeping its
+     * aspect ratio. A cached thumbnail comes back as an already completed future; otherwise it
+     * is decoded in the background. Completes with null if the file is missing or unreadable.
+     */
+    public CompletableFuture<Image> load(String path, int width, int height) {
+        Key key = new Key(path, width, height);
+        synchronized (this) {
+            Entry entry = strong.get(key);
+            if (entry != null) {
+                hits++;
+                recheckLater(key, entry);
+                return CompletableFuture.completedFuture(entry.image);
+            }
+            entry = promote(key);
+            if (entry != null) {
+                softHits++;
+                recheckLater(key, entry);
+                return CompletableFuture.completedFuture(entry.image);
+            }
+            misses++;
+            // Rows showing the same product share one decode
+            CompletableFuture<Image> pending = loading.get(key);
+            if (pending != null) {
+                return pending;
+            }
+            
+            CompletableFuture<Image> future = CompletableFuture.supplyAsync(() -> decode(key), loader)
+                .whenComplete((loaded, error) -> finish(key, loaded))
+                .thenApply(Loaded::image);
+            loading.put(key, future);
+            return future;
+        }
+    }
+    
+    public synchronized ThumbnailMetrics getMetrics() {
+        expungeCollected();
+        return new ThumbnailMetrics(strong.size(), strongBytes, maxBytes, soft.size(),
+            hits, softHits, misses, loads, failures, evictions);
+    }
+    
+    /**
+     * Drops every cached thumbnail, e.g. to release memory when no image table is shown.
+     */
+    public synchronized void clear() {
+        strong.clear();
+        soft.clear();
+        strongBytes = 0;
+    }
+    
+    private Loaded decode(Key key) {
+        String source = ImageStore.getInstance().previewPath(key.path());
+        long modified = lastModified(source);
+        if (modified < 0) {
+            return new Loaded(null, modified);
+        }
+        Image image = new Image(Path.of(source).toUri().toString(),
+            key.width(), key.height(), true, true, false);
+        return new Loaded(image.isError() ? null : image, modified);
+    }
+    
+    private synchronized void finish(Key key, Loaded loaded) {
+        loading.remove(key);
+        loads++;
+        Image image = loaded == null ? null : loaded.image();
+        if (image == null) {
+            failures++;
+        }
+        long cost = image == null ? MISSING_COST : (long) image.getWidth() * (long) image.getHeight() * 4;
+        long modified = loaded == null ? -1 : loaded.modified();
+        Entry previous = strong.put(key, new Entry(image, cost, modified, System.nanoTime()));
+        if (previous != null) {
+            strongBytes -= previous.bytes;
+        }
+        strongBytes += cost;
+        trim();
+    }
+    
+    // Stats a shown file outside the store on a loader thread; if it changed, the entry is
+    // dropped so the next render loads the new picture
+    private void recheckLater(Key key, Entry entry) {
+        long now = System.nanoTime();
+        if (now - entry.checked < RECHECK_NANOS) {
+            return;
+        }
+        entry.checked = now;
+        if (ImageStore.getInstance().isStored(key.path())) {
+            return;
+        }
+        loader.execute(() -> {
+            if (lastModified(key.path()) != entry.modified) {
+                drop(key, entry);
+            }
+        });
+    }
+    
+    private synchronized void drop(Key key, Entry entry) {
+        if (strong.remove(key, entry)) {
+            strongBytes -= entry.bytes;
+        }
+    }
+    
+    // Demotes the least recently used thumbnails to soft references until the budget fits
+    private void trim() {
+        Iterator<Map.Entry<Key, Entry>> eldest = strong.entrySet().iterator();
+        while (strongBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Key, Entry> next = eldest.next();
+            eldest.remove();
+            Entry entry = next.getValue();
+            strongBytes -= entry.bytes;
+            evictions++;
+            if (entry.image != null) {
+                soft.put(next.getKey(), new SoftEntry(next.getKey(), entry, collected));
+            }
+        }
+        expungeCollected();
+    }
+    
+    // A revived thumbnail is due for a re-check straight away: it may have sat unseen for long
+    private Entry promote(Key key) {
+        SoftEntry softEntry = soft.remove(key);
+        Image image = softEntry == null ? null : softEntry.get();
+        if (image == null) {
+            return null;
+        }
+        Entry entry = new Entry(image, softEntry.bytes, softEntry.modified, System.nanoTime() - RECHECK_NANOS);
+        strong.put(key, entry);
+        strongBytes += entry.bytes;
+        trim();
+        return entry;
+    }
+    
+    private void expungeCollected() {
+        SoftEntry cleared;
+        while ((cleared = (SoftEntry) collected.poll()) != null) {
+            soft.remove(cleared.key, cleared);
+        }
+    }
+    
+    private static long lastModified(String path) {
+        try {
+            return Files.getLastModifiedTime(Path.of(path)).toMillis();
+        } catch (IOException | InvalidPathException e) {
+            return -1;
+        }
+    }
+    
+    private record Key(String path, int width, int height) {}
+    
+    private record Loaded(Image image, long modified) {}
+    
+    private static final class Entry {
+        private final Image image;
+        private final long bytes;
+        private final long modified;
+        // When the file was last found unchanged; guarded by the service
+        private long checked;
+        
+        private Entry(Image image, long bytes, long modified, long checked) {
+            this.image = image;
+            this.bytes = bytes;
+            this.modified = modified;
+            this.checked = checked;
+        }
+    }
+    
+    private static final class SoftEntry extends SoftReference<Image> {
+        private final Key key;
+        private final long bytes;
+        private final long modified;
+        
+        private SoftEntry(Key key, Entry entry, ReferenceQueue<Image> queue) {
+            super(entry.image, queue);
+            this.key = key;
+            this.bytes = entry.bytes;
+            this.modified = entry.modified;
+        }
+    }
+}
@@ -38,7 +38,7 @@ public class AlertUtils {
         return alert.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK;
     }
     
-    public static void showException(String title, Exception e) {
+    public static void showException(String title, Throwable e) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
         alert.setHeaderText("An error occurred");
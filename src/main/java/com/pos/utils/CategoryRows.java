@@ -0,0 +1,30 @@
+package com.pos.utils;
+
+import com.pos.events.ChangeType;
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.models.Category;
+import javafx.collections.ObservableList;
+
+import java.util.Comparator;
+
+/**
+ * Applies category change events to the rows of a category table, touching only the row an
+ * event is about.
+ */
+public final class CategoryRows {
+    /** The order of {@code CategoryRepository.findAll}. */
+    public static final Comparator<Category> BY_NAME =
+        Comparator.comparing(Category::getName).thenComparingInt(Category::getId);
+    
+    private CategoryRows() {}
+    
+    public static void apply(ObservableList<Category> rows, CategoryChanged event) {
+        if (event.type() == ChangeType.DELETED) {
+            RowUpdates.remove(rows, event.categoryId(), Category::getId);
+        } else {
+            Category category = event.category();
+            RowUpdates.upsert(rows, new Category(category.getId(), category.getName(), category.getDescription()),
+                Category::getId, BY_NAME);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.pos.utils;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.util.function.Function;
+
+/**
+ * Typed replacement for {@link javafx.scene.control.cell.PropertyValueFactory}: the column
+ * reads its value through a method reference instead of looking the getter up by name and
+ * calling it reflectively on every cell update. A misspelt property becomes a compile error
+ * rather than an empty column.
+ */
+public final class CellValues {
+    
+    private CellValues() {}
+    
+    /**
+     * For values that do not change while shown, e.g. {@code CellValues.of(Product::getName)}.
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> of(Function<S, T> getter) {
+        return cell -> new ReadOnlyObjectWrapper<>(getter.apply(cell.getValue()));
+    }
+    
+    /**
+     * For observable model properties, e.g. {@code CellValues.observe(SaleItem::quantityProperty)};
+     * the cell follows changes to the property without the table being refreshed.
+     */
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> observe(
+            Function<S, ObservableValue<T>> property) {
+        return cell -> property.apply(cell.getValue());
+    }
+}
@@ -0,0 +1,117 @@
+package com.pos.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, so files of any size are read in
+ * constant memory. Handles quoted fields with embedded commas, doubled quotes and line
+ * breaks, and both CRLF and LF line endings.
+ */
+public class CsvReader implements Closeable {
+    private final Reader in;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLine;
+    
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+    
+    /**
+     * The next record's fields, or null at the end of the input. Blank lines are skipped.
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = lineNumber;
+        
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                any = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                lineNumber++;
+                if (any || field.length() > 0) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                recordLine = lineNumber;
+            } else {
+                field.append((char) c);
+                any = true;
+            }
+        }
+        
+        if (any || field.length() > 0) {
+            fields.add(field.toString());
+            return fields;
+        }
+        return null;
+    }
+    
+    /**
+     * The line on which the record last returned by {@link #readRecord()} started.
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+    
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+    
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+    
+    private boolean fill() throws IOException {
+        limit = in.read(buffer);
+        position = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.pos.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes RFC 4180 records, quoting only the fields that need it.
+ */
+public class CsvWriter implements Closeable, Flushable {
+    private final Writer out;
+    
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+    
+    public void writeRecord(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(fields.get(i));
+        }
+        out.write("\r\n");
+    }
+    
+    public void writeRecord(String... fields) throws IOException {
+        writeRecord(Arrays.asList(fields));
+    }
+    
+    private void writeField(String field) throws IOException {
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length() && !needsQuotes; i++) {
+            char c = field.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!needsQuotes) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
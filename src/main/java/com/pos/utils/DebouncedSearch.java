@@ -0,0 +1,106 @@
+package com.pos.utils;
+
+import javafx.animation.PauseTransition;
+import javafx.beans.value.ObservableValue;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Search-as-you-type without a query per keystroke: text changes are coalesced until the
+ * user pauses for the debounce window, then one query runs through a {@link LatestRequest},
+ * which cancels any older query still in flight and only ever delivers the newest result.
+ * Must be used from the JavaFX Application Thread.
+ */
+public class DebouncedSearch<T> {
+    /** Overridable with {@code -Dpos.search.debounceMillis=...}. */
+    public static final Duration DEFAULT_WINDOW = Duration.millis(Integer.getInteger("pos.search.debounceMillis", 150));
+    
+    private final PauseTransition pause;
+    private final LatestRequest<T> request;
+    private final Function<String, CompletableFuture<T>> query;
+    private final Consumer<T> onResult;
+    private final Consumer<Throwable> onError;
+    private String pendingText;
+    
+    private long issued;
+    private long suppressed;
+    
+    public DebouncedSearch(Duration window, LatestRequest<T> request, Function<String, CompletableFuture<T>> query,
+                           Consumer<T> onResult, Consumer<Throwable> onError) {
+        this.pause = new PauseTransition(window);
+        this.request = request;
+        this.query = query;
+        this.onResult = onResult;
+        this.onError = onError;
+        pause.setOnFinished(e -> flush());
+    }
+    
+    /**
+     * Searches whenever the given text changes, once typing pauses.
+     */
+    public void bind(ObservableValue<String> text) {
+        text.addListener((obs, old, newText) -> request(newText));
+    }
+    
+    public void request(String text) {
+        if (pendingText != null) {
+            suppressed++;
+        }
+        pendingText = text;
+        pause.playFromStart();
+    }
+    
+    /**
+     * Runs the search for the given text straight away, e.g. on Enter.
+     */
+    public void requestNow(String text) {
+        cancelPending();
+        issue(text);
+    }
+    
+    /**
+     * Drops a search that is still waiting for the debounce window, e.g. because another
+     * control is about to replace the results.
+     */
+    public void cancelPending() {
+        pause.stop();
+        if (pendingText != null) {
+            suppressed++;
+            pendingText = null;
+        }
+    }
+    
+    public long getIssuedCount() {
+        return issued;
+    }
+    
+    public long getSuppressedCount() {
+        return suppressed;
+    }
+    
+    public long getSupersededCount() {
+        return request.getSupersededCount();
+    }
+    
+    private void flush() {
+        String text = pendingText;
+        pendingText = null;
+        if (text != null) {
+            issue(text);
+        }
+    }
+    
+    private void issue(String text) {
+        issued++;
+        request.submit(query.apply(text), onResult, onError);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d queries issued, %d keystrokes coalesced, %d in-flight queries cancelled",
+            issued, suppressed, getSupersededCount());
+    }
+}
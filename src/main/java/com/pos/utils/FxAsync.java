@@ -0,0 +1,47 @@
+package com.pos.utils;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+public class FxAsync {
+    
+    /**
+     * Hands the outcome of a background call to the JavaFX Application Thread. Cancelled
+     * futures are dropped silently.
+     */
+    public static <T> void deliver(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((result, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                if (!(cause instanceof CancellationException)) {
+                    onError.accept(cause);
+                }
+            } else {
+                onSuccess.accept(result);
+            }
+        }, Platform::runLater);
+    }
+    
+    public static <T> void deliver(CompletableFuture<T> future, Consumer<T> onSuccess, String errorTitle) {
+        deliver(future, onSuccess, error -> {
+            AlertUtils.showError(errorTitle, error.getMessage());
+            error.printStackTrace();
+        });
+    }
+    
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,47 @@
+package com.pos.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Keeps only the most recent background request for one piece of UI (a search box, a
+ * filter). Submitting a new request cancels the previous one, and a late result from a
+ * superseded request is never delivered. Must be used from the JavaFX Application Thread.
+ */
+public class LatestRequest<T> {
+    private CompletableFuture<T> current;
+    private long superseded;
+    
+    public void submit(CompletableFuture<T> request, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        cancel();
+        current = request;
+        FxAsync.deliver(request, result -> {
+            if (current == request) {
+                current = null;
+                onSuccess.accept(result);
+            }
+        }, error -> {
+            if (current == request) {
+                current = null;
+                onError.accept(error);
+            }
+        });
+    }
+    
+    public void cancel() {
+        if (current != null) {
+            if (current.cancel(false)) {
+                superseded++;
+            }
+            current = null;
+        }
+    }
+    
+    public boolean isPending() {
+        return current != null;
+    }
+    
+    public long getSupersededCount() {
+        return superseded;
+    }
+}
@@ -0,0 +1,91 @@
+package com.pos.utils;
+
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.DomainEvent.ProductChanged;
+import com.pos.events.DomainEvent.ProductsReloaded;
+import com.pos.events.DomainEvent.StockChanged;
+import com.pos.events.EventBus;
+import com.pos.models.Product;
+import com.pos.repository.ProductRepository;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * The whole product catalog as one observable list, in name order, shared by every screen
+ * that lists products. It is loaded once and then kept current by change events; screens
+ * wrap it in their own {@link javafx.collections.transformation.FilteredList} and
+ * {@link javafx.collections.transformation.SortedList}, so filtering never goes back to the
+ * database. The rows are the cached catalog's own instances and text searches use its index,
+ * so the catalog is held in memory once. Must be used from the JavaFX Application Thread.
+ */
+public final class LiveCatalog {
+    private static final LiveCatalog INSTANCE = new LiveCatalog();
+    
+    private final ObservableList<Product> products = FXCollections.observableArrayList();
+    private final ObservableList<Product> readOnlyProducts = FXCollections.unmodifiableObservableList(products);
+    private final ProductRepository productRepository = new ProductRepository();
+    private final LatestRequest<List<Product>> loading = new LatestRequest<>();
+    private final List<Runnable> searchListeners = new ArrayList<>();
+    private boolean loaded;
+    
+    private LiveCatalog() {
+        EventBus events = EventBus.getInstance();
+        events.subscribe(ProductChanged.class, Platform::runLater, this::productChanged);
+        events.subscribe(StockChanged.class, Platform::runLater, event -> ProductRows.apply(products, event));
+        events.subscribe(CategoryChanged.class, Platform::runLater, event -> ProductRows.apply(products, event));
+        events.subscribe(ProductsReloaded.class, Platform::runLater, event -> reload());
+    }
+    
+    public static LiveCatalog getInstance() {
+        return INSTANCE;
+    }
+    
+    public ObservableList<Product> getProducts() {
+        return readOnlyProducts;
+    }
+    
+    /**
+     * Loads the catalog unless it already has been.
+     */
+    public void load() {
+        if (!loaded) {
+            reload();
+        }
+    }
+    
+    public void reload() {
+        loaded = true;
+        loading.submit(productRepository.findAllSharedAsync(), rows -> {
+            products.setAll(rows);
+            searchListeners.forEach(Runnable::run);
+        }, error -> AlertUtils.showException("Error loading products", error));
+    }
+    
+    /**
+     * Products whose name or barcode contains every word of the query, ignoring case and
+     * accents, looked up in the background. The result is fixed at the time of the lookup;
+     * see {@link #addSearchListener}.
+     */
+    public CompletableFuture<Predicate<Product>> matchingAsync(String query) {
+        return productRepository.findMatchingIdsAsync(query).thenApply(ids -> product -> ids.get(product.getId()));
+    }
+    
+    /**
+     * Runs the listener after products were added, renamed or removed, i.e. whenever
+     * predicates from {@link #matchingAsync} may have gone stale.
+     */
+    public void addSearchListener(Runnable listener) {
+        searchListeners.add(listener);
+    }
+    
+    private void productChanged(ProductChanged event) {
+        ProductRows.apply(products, event, product -> true);
+        searchListeners.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,48 @@
+package com.pos.utils;
+
+import com.pos.models.Money;
+
+/**
+ * Formats amounts for display as {@code $1234.50} / {@code -$0.99}. Table cells call this on
+ * every scroll and refresh, so digits are written straight from the cents into a per-thread
+ * buffer: no {@link java.util.Formatter}, no pattern parsing, and the returned String is the
+ * only allocation.
+ */
+public final class MoneyFormatter {
+    // "-$" + the 19 digits of Long.MIN_VALUE + "."
+    private static final int MAX_LENGTH = 22;
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+    
+    private MoneyFormatter() {}
+    
+    public static String format(Money amount) {
+        return format(amount.cents());
+    }
+    
+    public static String format(long cents) {
+        char[] buffer = BUFFER.get();
+        int start = write(buffer, cents);
+        return new String(buffer, start, buffer.length - start);
+    }
+    
+    // Fills the buffer from the end and returns where the text starts. Digits come from the
+    // negated amount so Long.MIN_VALUE needs no special case
+    private static int write(char[] buffer, long cents) {
+        int at = buffer.length;
+        long rest = cents < 0 ? cents : -cents;
+        buffer[--at] = (char) ('0' - rest % 10);
+        rest /= 10;
+        buffer[--at] = (char) ('0' - rest % 10);
+        rest /= 10;
+        buffer[--at] = '.';
+        do {
+            buffer[--at] = (char) ('0' - rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        buffer[--at] = '$';
+        if (cents < 0) {
+            buffer[--at] = '-';
+        }
+        return at;
+    }
+}
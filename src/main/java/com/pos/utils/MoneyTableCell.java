@@ -0,0 +1,23 @@
+package com.pos.utils;
+
+import com.pos.models.Money;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+/**
+ * Table cell for {@link Money} columns. The column keeps the Money value, so it sorts by
+ * amount; only the cell text is formatted.
+ */
+public class MoneyTableCell<S> extends TableCell<S, Money> {
+    
+    public static <S> Callback<TableColumn<S, Money>, TableCell<S, Money>> forTableColumn() {
+        return column -> new MoneyTableCell<>();
+    }
+    
+    @Override
+    protected void updateItem(Money item, boolean empty) {
+        super.updateItem(item, empty);
+        setText(empty || item == null ? null : MoneyFormatter.format(item));
+    }
+}
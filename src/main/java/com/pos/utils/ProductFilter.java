@@ -0,0 +1,183 @@
+package com.pos.utils;
+
+import com.pos.models.Money;
+import com.pos.models.Product;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * The filters of one product table over the {@link LiveCatalog}: search text, category, price
+ * range and stock, all applied together. Changing a filter replaces the predicate and the
+ * catalog is filtered again in memory, with no database query. Search text is debounced: the
+ * matches are looked up in the background once typing pauses, and only the newest lookup is
+ * applied.
+ */
+public final class ProductFilter {
+    private final LiveCatalog catalog;
+    private final ReadOnlyObjectWrapper<Predicate<Product>> predicate = new ReadOnlyObjectWrapper<>(product -> true);
+    private final LatestRequest<Predicate<Product>> textRequest = new LatestRequest<>();
+    private final DebouncedSearch<Predicate<Product>> textSearch;
+    
+    private String query = "";
+    private Predicate<Product> textMatch;
+    private int categoryId;
+    private Money minPrice;
+    private Money maxPrice;
+    private boolean inStockOnly;
+    
+    public ProductFilter(LiveCatalog catalog) {
+        this.catalog = catalog;
+        this.textSearch = new DebouncedSearch<>(DebouncedSearch.DEFAULT_WINDOW, textRequest, catalog::matchingAsync,
+            this::setTextMatch, error -> AlertUtils.showException("Error searching products", error));
+        // Text matches are looked up once per query; look them up again when the products change
+        catalog.addSearchListener(() -> {
+            if (!query.isEmpty()) {
+                textSearch.requestNow(query);
+            }
+        });
+    }
+    
+    /**
+     * Shows the catalog in the table through this filter. Column sorting happens in memory
+     * as well.
+     */
+    public void showIn(TableView<Product> table) {
+        FilteredList<Product> filtered = new FilteredList<>(catalog.getProducts());
+        filtered.predicateProperty().bind(predicate);
+        SortedList<Product> sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+    }
+    
+    public ReadOnlyObjectProperty<Predicate<Product>> predicateProperty() {
+        return predicate.getReadOnlyProperty();
+    }
+    
+    /**
+     * Filters by the text once typing pauses.
+     */
+    public void setText(String text) {
+        search(text, false);
+    }
+    
+    /**
+     * Filters by the text straight away, e.g. on Enter.
+     */
+    public void searchNow(String text) {
+        search(text, true);
+    }
+    
+    /**
+     * @param categoryId the category to show, or 0 for all
+     */
+    public void setCategoryId(int categoryId) {
+        if (categoryId != this.categoryId) {
+            this.categoryId = categoryId;
+            update();
+        }
+    }
+    
+    /**
+     * Inclusive bounds; null leaves that side open.
+     */
+    public void setPriceRange(Money minPrice, Money maxPrice) {
+        if (!Objects.equals(minPrice, this.minPrice) || !Objects.equals(maxPrice, this.maxPrice)) {
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            update();
+        }
+    }
+    
+    public void setInStockOnly(boolean inStockOnly) {
+        if (inStockOnly != this.inStockOnly) {
+            this.inStockOnly = inStockOnly;
+            update();
+        }
+    }
+    
+    /**
+     * The amount typed into a price range field; null, i.e. no bound, while it is empty or
+     * not a valid amount yet.
+     */
+    public static Money priceBound(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return Money.parse(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    public static Predicate<Product> inCategory(int categoryId) {
+        return product -> product.getCategoryId() == categoryId;
+    }
+    
+    public static Predicate<Product> priceBetween(Money minPrice, Money maxPrice) {
+        long min = minPrice == null ? Long.MIN_VALUE : minPrice.cents();
+        long max = maxPrice == null ? Long.MAX_VALUE : maxPrice.cents();
+        return product -> product.getPrice().cents() >= min && product.getPrice().cents() <= max;
+    }
+    
+    public static Predicate<Product> inStock() {
+        return product -> product.getStockQuantity() > 0;
+    }
+    
+    private void search(String text, boolean now) {
+        String trimmed = text == null ? "" : text.trim();
+        if (trimmed.isEmpty()) {
+            // Nothing to look up; show everything straight away
+            textSearch.cancelPending();
+            textRequest.cancel();
+            query = "";
+            setTextMatch(null);
+            return;
+        }
+        if (!now && trimmed.equals(query)) {
+            return;
+        }
+        query = trimmed;
+        if (now) {
+            textSearch.requestNow(trimmed);
+        } else {
+            textSearch.request(trimmed);
+        }
+    }
+    
+    private void setTextMatch(Predicate<Product> textMatch) {
+        if (textMatch != this.textMatch) {
+            this.textMatch = textMatch;
+            update();
+        }
+    }
+    
+    // Cheapest checks first; the combined predicate runs once per product on every change
+    private void update() {
+        Predicate<Product> combined = product -> true;
+        if (categoryId != 0) {
+            combined = combined.and(inCategory(categoryId));
+        }
+        if (inStockOnly) {
+            combined = combined.and(inStock());
+        }
+        if (minPrice != null || maxPrice != null) {
+            combined = combined.and(priceBetween(minPrice, maxPrice));
+        }
+        if (textMatch != null) {
+            combined = combined.and(textMatch);
+        }
+        predicate.set(combined);
+    }
+    
+    @Override
+    public String toString() {
+        return "text search: " + textSearch;
+    }
+}
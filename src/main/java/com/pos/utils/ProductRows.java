@@ -0,0 +1,62 @@
+package com.pos.utils;
+
+import com.pos.events.ChangeType;
+import com.pos.events.DomainEvent.CategoryChanged;
+import com.pos.events.DomainEvent.ProductChanged;
+import com.pos.events.DomainEvent.StockChanged;
+import com.pos.models.Product;
+import javafx.collections.ObservableList;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * Applies product change events to the rows of a product table, touching only the rows an
+ * event is about. Rows are replaced with copies rather than modified, since the same product
+ * objects may be in use elsewhere, e.g. by an open edit dialog.
+ */
+public final class ProductRows {
+    /** The order of {@code ProductRepository.findAll}. */
+    public static final Comparator<Product> BY_NAME =
+        Comparator.comparing(Product::getName).thenComparingInt(Product::getId);
+    
+    private ProductRows() {}
+    
+    /**
+     * Shows a created or edited product while it matches the table's filter and removes it
+     * once it does not, or once it is deleted.
+     */
+    public static void apply(ObservableList<Product> rows, ProductChanged event, Predicate<Product> filter) {
+        if (event.type() == ChangeType.DELETED || !filter.test(event.product())) {
+            RowUpdates.remove(rows, event.productId(), Product::getId);
+        } else {
+            RowUpdates.upsert(rows, new Product(event.product()), Product::getId, BY_NAME);
+        }
+    }
+    
+    public static void apply(ObservableList<Product> rows, StockChanged event) {
+        int index = RowUpdates.indexOf(rows, event.productId(), Product::getId);
+        if (index >= 0) {
+            Product product = new Product(rows.get(index));
+            product.setStockQuantity(event.stockQuantity());
+            rows.set(index, product);
+        }
+    }
+    
+    /**
+     * Products show their category's name, so a renamed category updates the rows in it.
+     */
+    public static void apply(ObservableList<Product> rows, CategoryChanged event) {
+        if (event.type() != ChangeType.UPDATED) {
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            Product row = rows.get(i);
+            if (row.getCategoryId() == event.categoryId()) {
+                Product product = new Product(row);
+                product.setCategoryName(event.category().getName());
+                rows.set(i, product);
+            }
+        }
+    }
+}
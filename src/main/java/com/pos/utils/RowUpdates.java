@@ -0,0 +1,85 @@
+package com.pos.utils;
+
+import javafx.collections.ObservableList;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Targeted changes to the rows behind a table, keyed by entity id. Each one fires a single
+ * add, replace or remove on the list, or a remove and an add for a row that moves, so the
+ * table updates that row only and keeps its scroll position.
+ */
+public final class RowUpdates {
+    
+    private RowUpdates() {}
+    
+    public static <T> int indexOf(List<T> rows, int id, ToIntFunction<? super T> idOf) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (idOf.applyAsInt(rows.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Puts the row in place of the one with the same id, or at its sorted position if the list
+     * does not have it yet or its sort key changed. The list must already be in {@code order},
+     * and {@code order} must end with the id, so only the same entity compares equal.
+     */
+    public static <T> void upsert(ObservableList<T> rows, T row, ToIntFunction<? super T> idOf, Comparator<? super T> order) {
+        // Most edits keep the sort key, so the old row is found by binary search
+        int at = insertionPoint(rows, row, order);
+        if (at > 0 && order.compare(rows.get(at - 1), row) == 0) {
+            rows.set(at - 1, row);
+            return;
+        }
+        
+        // A new row, or one that has to move; the old one can only be found by id
+        int index = indexOf(rows, idOf.applyAsInt(row), idOf);
+        if (index >= 0) {
+            rows.remove(index);
+            if (index < at) {
+                at--;
+            }
+        }
+        rows.add(at, row);
+    }
+    
+    /**
+     * Replaces the row with the same id; false if the list does not have it.
+     */
+    public static <T> boolean replace(ObservableList<T> rows, T row, ToIntFunction<? super T> idOf) {
+        int index = indexOf(rows, idOf.applyAsInt(row), idOf);
+        if (index < 0) {
+            return false;
+        }
+        rows.set(index, row);
+        return true;
+    }
+    
+    public static <T> boolean remove(ObservableList<T> rows, int id, ToIntFunction<? super T> idOf) {
+        int index = indexOf(rows, id, idOf);
+        if (index < 0) {
+            return false;
+        }
+        rows.remove(index);
+        return true;
+    }
+    
+    private static <T> int insertionPoint(List<T> rows, T row, Comparator<? super T> order) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (order.compare(rows.get(mid), row) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
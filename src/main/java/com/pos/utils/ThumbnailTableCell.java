@@ -0,0 +1,56 @@
+package com.pos.utils;
+
+import com.pos.services.ThumbnailService;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.util.Callback;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shows the image file named by the cell's value as a thumbnail. Cached thumbnails appear
+ * straight away; others load in the background and are dropped if the cell has been reused
+ * for another row by the time they arrive.
+ */
+public class ThumbnailTableCell<S> extends TableCell<S, String> {
+    private final ImageView imageView = new ImageView();
+    private final int width;
+    private final int height;
+    
+    public ThumbnailTableCell(int width, int height) {
+        this.width = width;
+        this.height = height;
+        imageView.setFitWidth(width);
+        imageView.setFitHeight(height);
+        imageView.setPreserveRatio(true);
+    }
+    
+    public static <S> Callback<TableColumn<S, String>, TableCell<S, String>> forTableColumn(int width, int height) {
+        return column -> new ThumbnailTableCell<>(width, height);
+    }
+    
+    @Override
+    protected void updateItem(String path, boolean empty) {
+        super.updateItem(path, empty);
+        if (empty || path == null || path.isEmpty()) {
+            imageView.setImage(null);
+            setGraphic(null);
+            return;
+        }
+        
+        setGraphic(imageView);
+        CompletableFuture<Image> thumbnail = ThumbnailService.getInstance().load(path, width, height);
+        if (thumbnail.isDone() && !thumbnail.isCompletedExceptionally()) {
+            imageView.setImage(thumbnail.getNow(null));
+            return;
+        }
+        imageView.setImage(null);
+        FxAsync.deliver(thumbnail, image -> {
+            if (path.equals(getItem())) {
+                imageView.setImage(image);
+            }
+        }, error -> {});
+    }
+}
@@ -0,0 +1,136 @@
+package com.pos.utils;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The screens shown in the main content area. Each screen is built once, the first time it is
+ * shown or preloaded, and kept; switching back to it only swaps it in and refreshes its data.
+ * Must be used from the JavaFX Application Thread.
+ */
+public class ViewRegistry {
+    
+    /**
+     * A built screen: its root node and what to run each time it is shown.
+     */
+    public record View(Node root, Runnable refresh) {}
+    
+    /**
+     * Implemented by FXML controllers whose screen reloads its data when shown again.
+     */
+    public interface Refreshable {
+        void refresh();
+    }
+    
+    private final Pane host;
+    private final Map<String, Supplier<View>> factories = new LinkedHashMap<>();
+    private final Map<String, View> views = new HashMap<>();
+    private String current;
+    
+    private long builds;
+    private long shows;
+    private long lastShowNanos;
+    
+    public ViewRegistry(Pane host) {
+        this.host = host;
+    }
+    
+    public void register(String name, Supplier<View> factory) {
+        factories.put(name, factory);
+    }
+    
+    /**
+     * Puts the screen in the content area, building it if this is its first use, and
+     * refreshes its data. Showing the current screen again just refreshes it.
+     */
+    public void show(String name) {
+        long start = System.nanoTime();
+        View view = view(name);
+        if (!name.equals(current)) {
+            host.getChildren().setAll(view.root());
+            current = name;
+        }
+        view.refresh().run();
+        shows++;
+        lastShowNanos = System.nanoTime() - start;
+    }
+    
+    /**
+     * Builds the screens that have not been shown yet, one per pulse so the window stays
+     * responsive meanwhile. Their data is only loaded once they are shown.
+     */
+    public void preload() {
+        Deque<String> pending = new ArrayDeque<>();
+        for (String name : factories.keySet()) {
+            if (!views.containsKey(name)) {
+                pending.add(name);
+            }
+        }
+        preloadNext(pending);
+    }
+    
+    /**
+     * A refresh that runs {@code load} on the first show only, for screens that change events
+     * keep up to date from then on.
+     */
+    public static Runnable firstShowOnly(Runnable load) {
+        return new Runnable() {
+            private boolean loaded;
+            
+            @Override
+            public void run() {
+                if (!loaded) {
+                    loaded = true;
+                    load.run();
+                }
+            }
+        };
+    }
+    
+    public String getCurrent() {
+        return current;
+    }
+    
+    private void preloadNext(Deque<String> pending) {
+        String name = pending.poll();
+        if (name == null) {
+            return;
+        }
+        Platform.runLater(() -> {
+            try {
+                view(name);
+            } catch (RuntimeException e) {
+                // Built again, and reported, when the screen is actually opened
+                System.err.println("Could not preload view " + name + ": " + e.getMessage());
+            }
+            preloadNext(pending);
+        });
+    }
+    
+    private View view(String name) {
+        View view = views.get(name);
+        if (view == null) {
+            Supplier<View> factory = factories.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("Unknown view: " + name);
+            }
+            view = factory.get();
+            views.put(name, view);
+            builds++;
+        }
+        return view;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d views built, %d shows, last switch %.2f ms", builds, shows, lastShowNanos / 1_000_000.0);
+    }
+}
@@ -9,5 +9,7 @@ module pos.system {
     exports com.pos.models;
     exports com.pos.repository;
     exports com.pos.database;
+    exports com.pos.events;
+    exports com.pos.services;
     exports com.pos.utils;
 }